@@ -0,0 +1,144 @@
+package org.folio.benchmark;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.folio.rest.jaxrs.model.CheckboxField;
+import org.folio.rest.jaxrs.model.CustomField;
+import org.folio.rest.jaxrs.model.SelectField;
+import org.folio.rest.jaxrs.model.SelectFieldOption;
+import org.folio.rest.jaxrs.model.SelectFieldOptions;
+import org.folio.rest.jaxrs.model.TextField;
+
+/**
+ * Generates custom field definitions and values for benchmarks. Definitions cycle through multi-select dropdowns,
+ * repeatable single-select dropdowns, repeatable short text boxes of every format and checkboxes,
+ * so every value validator is exercised.
+ */
+final class BenchmarkData {
+
+  static final int RECORDS = 1024;
+
+  private static final long SEED = 42L;
+  private static final int FIELDS_PER_RECORD = 10;
+  private static final int TYPES = 4;
+
+  private static final TextField.FieldFormat[] FORMATS = TextField.FieldFormat.values();
+
+  private BenchmarkData() {
+  }
+
+  static List<CustomField> definitions(int count, int optionCount) {
+    List<CustomField> definitions = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      CustomField definition = new CustomField()
+        .withId("00000000-0000-4000-8000-" + String.format("%012d", i))
+        .withName("Field " + i)
+        .withRefId("field_" + i)
+        .withEntityType("user")
+        .withHelpText("Help text of field " + i)
+        .withVisible(true)
+        .withRequired(false)
+        .withIsRepeatable(false)
+        .withOrder(i);
+      switch (i % TYPES) {
+        case 0:
+          definition.withType(CustomField.Type.MULTI_SELECT_DROPDOWN)
+            .withSelectField(selectField(optionCount, true));
+          break;
+        case 1:
+          definition.withType(CustomField.Type.SINGLE_SELECT_DROPDOWN)
+            .withIsRepeatable(true)
+            .withSelectField(selectField(optionCount, false));
+          break;
+        case 2:
+          definition.withType(CustomField.Type.TEXTBOX_SHORT)
+            .withIsRepeatable(true)
+            .withTextField(new TextField().withFieldFormat(FORMATS[(i / TYPES) % FORMATS.length]));
+          break;
+        default:
+          definition.withType(CustomField.Type.SINGLE_CHECKBOX)
+            .withCheckboxField(new CheckboxField().withDefault(false));
+          break;
+      }
+      definitions.add(definition);
+    }
+    return definitions;
+  }
+
+  /**
+   * Generates values of {@link #RECORDS} records. Each record has values of up to ten consecutive fields,
+   * list values have {@code listSize} elements, {@code errorRatio} of the records have one invalid value.
+   */
+  static List<Map<String, Object>> records(List<CustomField> definitions, int optionCount, int listSize,
+                                           double errorRatio) {
+    Random random = new Random(SEED);
+    List<Map<String, Object>> records = new ArrayList<>(RECORDS);
+    int fieldsPerRecord = Math.min(FIELDS_PER_RECORD, definitions.size());
+    for (int i = 0; i < RECORDS; i++) {
+      Map<String, Object> record = new HashMap<>();
+      int first = random.nextInt(definitions.size());
+      int invalidField = random.nextDouble() < errorRatio ? random.nextInt(fieldsPerRecord) : -1;
+      for (int j = 0; j < fieldsPerRecord; j++) {
+        int index = (first + j) % definitions.size();
+        record.put(definitions.get(index).getRefId(), value(index, optionCount, listSize, j == invalidField, random));
+      }
+      records.add(record);
+    }
+    return records;
+  }
+
+  private static Object value(int index, int optionCount, int listSize, boolean invalid, Random random) {
+    switch (index % TYPES) {
+      case 0:
+      case 1:
+        List<String> options = new ArrayList<>(listSize);
+        for (int i = 0; i < listSize; i++) {
+          options.add("opt_" + random.nextInt(optionCount));
+        }
+        if (invalid) {
+          options.set(listSize - 1, "opt_" + optionCount);
+        }
+        return options;
+      case 2:
+        TextField.FieldFormat format = FORMATS[(index / TYPES) % FORMATS.length];
+        List<String> texts = new ArrayList<>(listSize);
+        for (int i = 0; i < listSize; i++) {
+          texts.add(text(format, random));
+        }
+        if (invalid) {
+          texts.set(listSize - 1, format == TextField.FieldFormat.TEXT ? " " : "not valid");
+        }
+        return texts;
+      default:
+        return invalid ? "true" : random.nextBoolean();
+    }
+  }
+
+  private static String text(TextField.FieldFormat format, Random random) {
+    int n = random.nextInt(100_000);
+    switch (format) {
+      case EMAIL:
+        return "user." + n + "@example.com";
+      case NUMBER:
+        return n % 2 == 0 ? Integer.toString(n) : "-1,234." + n;
+      case URL:
+        return "https://www" + n + ".example.org/path/to/resource?q=" + n;
+      default:
+        return "Some text " + n;
+    }
+  }
+
+  private static SelectField selectField(int optionCount, boolean multiSelect) {
+    List<SelectFieldOption> options = new ArrayList<>(optionCount);
+    for (int i = 0; i < optionCount; i++) {
+      options.add(new SelectFieldOption().withId("opt_" + i).withValue("Option " + i).withDefault(false));
+    }
+    return new SelectField()
+      .withMultiSelect(multiSelect)
+      .withOptions(new SelectFieldOptions().withValues(options));
+  }
+}
@@ -0,0 +1,81 @@
+package org.folio.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import org.folio.rest.jaxrs.model.CustomField;
+import org.folio.spring.TestConfiguration;
+import org.folio.validate.definition.DefinitionValidator;
+
+/**
+ * Throughput of {@link DefinitionValidator} for the definitions of a collection, as done on every create,
+ * update and replacement of custom fields. {@code errorRatio} of the definitions have a duplicated option value.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DefinitionValidatorBenchmark {
+
+  @Param({"10", "100", "1000"})
+  private int definitionCount;
+
+  @Param({"5", "50", "200"})
+  private int optionCount;
+
+  @Param({"0.0", "0.1", "0.5"})
+  private double errorRatio;
+
+  private AnnotationConfigApplicationContext springContext;
+  private DefinitionValidator definitionValidator;
+  private List<CustomField> definitions;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    springContext = new AnnotationConfigApplicationContext(TestConfiguration.class);
+    definitionValidator = springContext.getBean(DefinitionValidator.class);
+    definitions = BenchmarkData.definitions(definitionCount, optionCount);
+    int invalidEvery = errorRatio > 0 ? (int) Math.round(1 / errorRatio) : 0;
+    for (int i = 0; i < definitions.size(); i++) {
+      CustomField definition = definitions.get(i);
+      if (invalidEvery > 0 && i % invalidEvery == 0 && definition.getSelectField() != null && optionCount > 1) {
+        definition.getSelectField().getOptions().getValues().get(1).setValue("Option 0");
+      }
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    springContext.close();
+  }
+
+  @Benchmark
+  public int validateDefinitions() {
+    int invalid = 0;
+    for (CustomField definition : definitions) {
+      try {
+        definitionValidator.validate(definition);
+      } catch (IllegalArgumentException ex) {
+        invalid++;
+      }
+    }
+    return invalid;
+  }
+}
@@ -0,0 +1,136 @@
+package org.folio.benchmark;
+
+import static org.folio.validate.ValidationUtil.createError;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.google.gson.Gson;
+import io.vertx.core.json.Json;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import org.folio.rest.jaxrs.model.CustomField;
+import org.folio.rest.jaxrs.model.Error;
+import org.folio.spring.TestConfiguration;
+import org.folio.validate.ValidationPlan;
+import org.folio.validate.ValidationPlanFactory;
+import org.folio.validate.ValidationResult;
+import org.folio.validate.value.CustomFieldValueValidator;
+
+/**
+ * Throughput of custom field value validation for one record, as done by
+ * {@link org.folio.validate.ValidationServiceImpl} once the definitions are cached.
+ * {@code perCallLookup} reproduces the former validation that searched the definition list and the validators
+ * for every value, it's the baseline for the compiled plan. {@code compiledPlanFailFast} stops at the first error.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ValidationPlanBenchmark {
+
+  private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+  @Param({"10", "100", "1000"})
+  private int definitionCount;
+
+  @Param({"5", "50", "200"})
+  private int optionCount;
+
+  @Param({"1", "10", "100"})
+  private int listSize;
+
+  @Param({"0.0", "0.1", "0.5"})
+  private double errorRatio;
+
+  private AnnotationConfigApplicationContext springContext;
+  private List<CustomField> definitions;
+  private List<CustomFieldValueValidator> validators;
+  private ValidationPlan plan;
+  private List<Map<String, Object>> records;
+  private List<byte[]> jsonRecords;
+  private int cursor;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    springContext = new AnnotationConfigApplicationContext(TestConfiguration.class);
+    validators = new ArrayList<>(springContext.getBeansOfType(CustomFieldValueValidator.class).values());
+    definitions = BenchmarkData.definitions(definitionCount, optionCount);
+    plan = springContext.getBean(ValidationPlanFactory.class).getPlan(definitions);
+    records = BenchmarkData.records(definitions, optionCount, listSize, errorRatio);
+    jsonRecords = new ArrayList<>(records.size());
+    records.forEach(record -> jsonRecords.add(Json.encode(record).getBytes()));
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    springContext.close();
+  }
+
+  @Benchmark
+  public List<Error> compiledPlan() {
+    return plan.validate(records.get(nextRecord()));
+  }
+
+  @Benchmark
+  public ValidationResult compiledPlanFailFast() {
+    return plan.validate(records.get(nextRecord()), 1);
+  }
+
+  @Benchmark
+  public List<Error> compiledPlanStreamingJson() throws IOException {
+    try (JsonParser parser = JSON_FACTORY.createParser(jsonRecords.get(nextRecord()))) {
+      return plan.validate(parser);
+    }
+  }
+
+  @Benchmark
+  public List<Error> perCallLookup() {
+    List<Error> errorList = new ArrayList<>();
+    for (Map.Entry<String, Object> entry : records.get(nextRecord()).entrySet()) {
+      CustomField definition = definitions.stream()
+        .filter(field -> entry.getKey().equals(field.getRefId()))
+        .findFirst()
+        .orElse(null);
+      if (definition == null) {
+        errorList.add(createError(entry.getKey(), "customFields", "Custom field is not found"));
+        continue;
+      }
+      validators.stream()
+        .filter(validator -> validator.supportedTypes().contains(definition.getType()))
+        .forEach(validator -> {
+          try {
+            validator.validate(entry.getValue(), definition);
+          } catch (IllegalArgumentException ex) {
+            errorList.add(createError(new Gson().toJson(entry.getValue()), definition.getRefId(), ex.getMessage()));
+          }
+        });
+    }
+    return errorList;
+  }
+
+  private int nextRecord() {
+    cursor = (cursor + 1) % BenchmarkData.RECORDS;
+    return cursor;
+  }
+}
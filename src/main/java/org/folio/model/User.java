@@ -1,5 +1,6 @@
 package org.folio.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 
 import lombok.Getter;
@@ -13,4 +14,9 @@ import lombok.Setter;
 public class User {
     private String username;
     private String id;
+    /**
+     * True if mod-users was unavailable and the user has id only
+     */
+    @JsonIgnore
+    private boolean degraded;
 }
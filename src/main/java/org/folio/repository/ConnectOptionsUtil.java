@@ -0,0 +1,35 @@
+package org.folio.repository;
+
+import io.vertx.core.json.JsonObject;
+import io.vertx.pgclient.PgConnectOptions;
+
+public final class ConnectOptionsUtil {
+
+  private ConnectOptionsUtil() {
+  }
+
+  /**
+   * Creates options of a connection to the database of the module
+   *
+   * @param config - connection config of {@link org.folio.rest.persist.PostgresClient}
+   */
+  public static PgConnectOptions connectOptions(JsonObject config) {
+    PgConnectOptions options = new PgConnectOptions();
+    if (config.getString("host") != null) {
+      options.setHost(config.getString("host"));
+    }
+    if (config.getValue("port") != null) {
+      options.setPort(Integer.parseInt(config.getValue("port").toString()));
+    }
+    if (config.getString("database") != null) {
+      options.setDatabase(config.getString("database"));
+    }
+    if (config.getString("username") != null) {
+      options.setUser(config.getString("username"));
+    }
+    if (config.getString("password") != null) {
+      options.setPassword(config.getString("password"));
+    }
+    return options;
+  }
+}
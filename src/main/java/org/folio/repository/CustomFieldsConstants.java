@@ -1,19 +1,184 @@
 package org.folio.repository;
 
+/**
+ * SQL of {@link CustomFieldsRepositoryImpl}. Values are passed as parameters, the only format argument
+ * %1$s is the schema of the tenant. {@link #SELECT_PROPERTIES}, {@link #SELECT_COUNT} and {@link #EXPLAIN_SELECT}
+ * are followed by the condition translated from the CQL query, so their text differs between queries.
+ * Columns {@link #REF_ID_COLUMN}, {@link #ORDER_COLUMN} and entity_type are set from the jsonb by a trigger
+ * and indexed, so statements filter, sort and aggregate by them instead of extracting values from the jsonb.
+ */
 public final class CustomFieldsConstants {
 
   public static final String CUSTOM_FIELDS_TABLE = "custom_fields";
+  public static final String REF_ID_COUNTER_TABLE = "custom_fields_ref_id_counter";
+  public static final String ORDER_COUNTER_TABLE = "custom_fields_order_counter";
 
-  public static final String MAX_ORDER_COLUMN = "max_order";
-  public static final String VALUES_COLUMN = "values";
+  public static final String LAST_NUMBER_COLUMN = "last_number";
+  public static final String REF_ID_COLUMN = "ref_id";
+  public static final String ORDER_COLUMN = "field_order";
+  public static final String ENTITY_TYPE_COLUMN = "entity_type";
   public static final String JSONB_COLUMN = "jsonb";
   public static final String ID_COLUMN = "id";
+  public static final String TOTAL_RECORDS_COLUMN = "total_records";
+  /**
+   * totalRecords of a page whose total number of custom fields isn't calculated
+   */
+  public static final int TOTAL_RECORDS_NOT_CALCULATED = -1;
 
-  public static final String REF_ID_REGEX = "%s(_([2-9]|[1-9]\\d+))?";
-  public static final String SELECT_REF_IDS = "SELECT "+ JSONB_COLUMN + " ->> 'refId' as "
-    + VALUES_COLUMN + " FROM %s WHERE " + JSONB_COLUMN + " ->> 'refId' SIMILAR TO $1" ;
-  public static final String SELECT_MAX_ORDER = "SELECT MAX((jsonb ->> 'order')::int) as " + MAX_ORDER_COLUMN + " FROM %s";
-  public static final String WHERE_ID_EQUALS_CLAUSE = "WHERE " + ID_COLUMN + "='%s'";
+  private static final String CUSTOM_FIELDS = "%1$s." + CUSTOM_FIELDS_TABLE;
+  private static final String REF_ID_COUNTER = "%1$s." + REF_ID_COUNTER_TABLE;
+  private static final String ORDER_COUNTER = "%1$s." + ORDER_COUNTER_TABLE;
+
+  /**
+   * Inserts custom field $2 with id $1
+   */
+  public static final String INSERT_CUSTOM_FIELD_AS_IS = "INSERT INTO " + CUSTOM_FIELDS + " (id, jsonb) "
+    + "VALUES ($1, $2::jsonb) RETURNING id";
+  /**
+   * Inserts custom field $3 with id $2 and the next refId of the base name $1, keeping the order of the field
+   */
+  public static final String INSERT_CUSTOM_FIELD =
+    "WITH ref_id AS ("
+      + "INSERT INTO " + REF_ID_COUNTER + " AS counter (base_name, last_number) VALUES ($1, 1) "
+      + "ON CONFLICT (base_name) DO UPDATE SET last_number = counter.last_number + 1 RETURNING last_number) "
+      + "INSERT INTO " + CUSTOM_FIELDS + " (id, jsonb) "
+      + "SELECT $2::uuid, $3::jsonb || jsonb_build_object('refId', $1 || CASE WHEN ref_id.last_number > 1 "
+      + "THEN '_' || ref_id.last_number ELSE '' END) FROM ref_id "
+      + "RETURNING " + REF_ID_COLUMN + ", " + ORDER_COLUMN;
+  /**
+   * Inserts custom field $3 with id $2, the next refId of the base name $1 and the next order.
+   * The order counter is initialized from custom fields if it doesn't exist.
+   */
+  public static final String INSERT_LAST_CUSTOM_FIELD =
+    "WITH ref_id AS ("
+      + "INSERT INTO " + REF_ID_COUNTER + " AS counter (base_name, last_number) VALUES ($1, 1) "
+      + "ON CONFLICT (base_name) DO UPDATE SET last_number = counter.last_number + 1 RETURNING last_number), "
+      + "field_order AS ("
+      + "INSERT INTO " + ORDER_COUNTER + " AS counter (id, last_order) "
+      + "SELECT true, COALESCE((SELECT last_order FROM " + ORDER_COUNTER + "), "
+      + "(SELECT MAX(" + ORDER_COLUMN + ") FROM " + CUSTOM_FIELDS + "), 0) + 1 "
+      + "ON CONFLICT (id) DO UPDATE SET last_order = counter.last_order + 1 RETURNING last_order) "
+      + "INSERT INTO " + CUSTOM_FIELDS + " (id, jsonb) "
+      + "SELECT $2::uuid, $3::jsonb || jsonb_build_object('refId', $1 || CASE WHEN ref_id.last_number > 1 "
+      + "THEN '_' || ref_id.last_number ELSE '' END, 'order', field_order.last_order) FROM ref_id, field_order "
+      + "RETURNING " + REF_ID_COLUMN + ", " + ORDER_COLUMN;
+  /**
+   * Inserts custom fields of json array $1, each with the next refId of the base name at the same position
+   * of array $2, keeping the order of the fields. The refId counter of a base name is incremented once
+   * by the number of fields with that base name.
+   */
+  public static final String INSERT_CUSTOM_FIELDS =
+    "WITH input AS ("
+      + "SELECT element.jsonb, element.base_name, "
+      + "row_number() OVER (PARTITION BY element.base_name ORDER BY element.ordinal) AS number_in_batch, "
+      + "COUNT(*) OVER (PARTITION BY element.base_name) AS batch_count "
+      + "FROM ROWS FROM (jsonb_array_elements($1::jsonb), unnest($2::text[])) WITH ORDINALITY "
+      + "AS element(jsonb, base_name, ordinal)), "
+      + "ref_id AS ("
+      + "INSERT INTO " + REF_ID_COUNTER + " AS counter (base_name, last_number) "
+      + "SELECT base_name, COUNT(*) FROM input GROUP BY base_name "
+      + "ON CONFLICT (base_name) DO UPDATE SET last_number = counter.last_number + EXCLUDED.last_number "
+      + "RETURNING base_name, last_number), "
+      + "numbered AS ("
+      + "SELECT input.jsonb, input.base_name, "
+      + "ref_id.last_number - input.batch_count + input.number_in_batch AS ref_id_number "
+      + "FROM input JOIN ref_id ON ref_id.base_name = input.base_name) "
+      + "INSERT INTO " + CUSTOM_FIELDS + " (id, jsonb) "
+      + "SELECT (jsonb ->> 'id')::uuid, jsonb || jsonb_build_object('refId', base_name || CASE WHEN ref_id_number > 1 "
+      + "THEN '_' || ref_id_number ELSE '' END) FROM numbered "
+      + "RETURNING id, " + REF_ID_COLUMN;
+  /**
+   * Selects custom fields with only the properties in array $1, or whole custom fields if $1 is null.
+   * Has to be followed by the condition of the query, {@link #AFTER_ORDER_CONDITION} if the page starts
+   * after an order, the sort of the query and {@link #PAGE}
+   */
+  public static final String SELECT_PROPERTIES = "SELECT CASE WHEN $1::text[] IS NULL THEN " + CUSTOM_FIELDS_TABLE
+    + ".jsonb ELSE COALESCE((SELECT jsonb_object_agg(property.key, property.value) "
+    + "FROM jsonb_each(" + CUSTOM_FIELDS_TABLE + ".jsonb) AS property WHERE property.key = ANY($1::text[])), "
+    + "'{}'::jsonb) END AS " + JSONB_COLUMN + " FROM " + CUSTOM_FIELDS + " WHERE ";
+  public static final String ORDER_EXPRESSION = CUSTOM_FIELDS_TABLE + "." + ORDER_COLUMN;
+  public static final String AFTER_ORDER_CONDITION = " AND " + ORDER_EXPRESSION + " > $4";
+  public static final String PAGE = " LIMIT $2 OFFSET $3";
+  /**
+   * Counts custom fields, has to be followed by the condition of the query
+   */
+  public static final String SELECT_COUNT = "SELECT COUNT(*) AS " + TOTAL_RECORDS_COLUMN + " FROM " + CUSTOM_FIELDS
+    + " WHERE ";
+  /**
+   * Plan of the selection of custom fields with estimated number of rows, has to be followed by the condition
+   * of the query
+   */
+  public static final String EXPLAIN_SELECT = "EXPLAIN (FORMAT JSON) SELECT 1 FROM " + CUSTOM_FIELDS + " WHERE ";
+  /**
+   * Selects all custom fields sorted by order
+   */
+  public static final String SELECT_ALL = "SELECT " + JSONB_COLUMN + " FROM " + CUSTOM_FIELDS
+    + " ORDER BY " + ORDER_EXPRESSION + ", " + ID_COLUMN;
+  public static final String SELECT_BY_ID = "SELECT " + JSONB_COLUMN + " FROM " + CUSTOM_FIELDS
+    + " WHERE " + ID_COLUMN + " = $1";
+  public static final String SELECT_BY_REF_ID = "SELECT " + JSONB_COLUMN + " FROM " + CUSTOM_FIELDS
+    + " WHERE " + REF_ID_COLUMN + " = $1";
+  public static final String UPDATE_CUSTOM_FIELD = "UPDATE " + CUSTOM_FIELDS + " SET " + JSONB_COLUMN
+    + " = $2::jsonb WHERE " + ID_COLUMN + " = $1";
+  /**
+   * Replaces custom fields with the elements of json array $1 that have the same id
+   */
+  public static final String UPDATE_CUSTOM_FIELDS = "UPDATE " + CUSTOM_FIELDS + " AS field SET jsonb = input.jsonb "
+    + "FROM jsonb_array_elements($1::jsonb) AS input(jsonb) WHERE field.id = (input.jsonb ->> 'id')::uuid";
+  public static final String DELETE_CUSTOM_FIELD = "DELETE FROM " + CUSTOM_FIELDS + " WHERE " + ID_COLUMN + " = $1";
+  public static final String DELETE_CUSTOM_FIELDS = "DELETE FROM " + CUSTOM_FIELDS
+    + " WHERE " + ID_COLUMN + " = ANY($1::uuid[])";
+  /**
+   * Locks the row of order counter, creating it if it doesn't exist, until the end of the transaction.
+   * Statements that compute orders from existing custom fields have to run after it in the same transaction,
+   * so that they see the fields inserted by concurrent transactions and are not overwritten by them.
+   */
+  public static final String LOCK_ORDER_COUNTER = "INSERT INTO " + ORDER_COUNTER + " AS counter (id, last_order) "
+    + "SELECT true, COALESCE(MAX(" + ORDER_COLUMN + "), 0) FROM " + CUSTOM_FIELDS + " "
+    + "ON CONFLICT (id) DO UPDATE SET last_order = counter.last_order";
+  /**
+   * Sets order counter to the maximum order of custom fields, has to run after {@link #LOCK_ORDER_COUNTER}
+   */
+  public static final String RESET_ORDER_COUNTER = "INSERT INTO " + ORDER_COUNTER + " AS counter (id, last_order) "
+    + "SELECT true, COALESCE(MAX(" + ORDER_COLUMN + "), 0) FROM " + CUSTOM_FIELDS + " "
+    + "ON CONFLICT (id) DO UPDATE SET last_order = EXCLUDED.last_order";
+  /**
+   * Renumbers custom fields to consecutive orders starting from 1, keeping their relative order,
+   * and sets order counter to the number of fields. Only fields whose order changes are updated.
+   * Has to run after {@link #LOCK_ORDER_COUNTER}.
+   */
+  public static final String RENUMBER_ORDER =
+    "WITH ordered AS ("
+      + "SELECT id, " + ORDER_COLUMN + " AS old_order, "
+      + "row_number() OVER (ORDER BY " + ORDER_COLUMN + ", id)::integer AS new_order FROM " + CUSTOM_FIELDS
+      + "), renumbered AS ("
+      + "UPDATE " + CUSTOM_FIELDS + " AS field "
+      + "SET jsonb = jsonb_set(field.jsonb, '{order}', to_jsonb(ordered.new_order)) "
+      + "FROM ordered WHERE field.id = ordered.id AND ordered.old_order IS DISTINCT FROM ordered.new_order) "
+      + "INSERT INTO " + ORDER_COUNTER + " AS counter (id, last_order) SELECT true, COUNT(*) FROM ordered "
+      + "ON CONFLICT (id) DO UPDATE SET last_order = EXCLUDED.last_order";
+
+  private static final String CREATED_BY_USERNAME_MISSING = "(jsonb -> 'metadata' ->> 'createdByUserId' = $1 "
+    + "AND COALESCE(jsonb -> 'metadata' ->> 'createdByUsername', 'undefined') = 'undefined')";
+  private static final String UPDATED_BY_USERNAME_MISSING = "(jsonb -> 'metadata' ->> 'updatedByUserId' = $1 "
+    + "AND COALESCE(jsonb -> 'metadata' ->> 'updatedByUsername', 'undefined') = 'undefined')";
+  /**
+   * Allows {@link #BACKFILL_USERNAME} to set createdByUsername until the end of the transaction, the trigger
+   * of custom fields keeps createdByUsername of the old custom field otherwise
+   */
+  public static final String ENABLE_USERNAME_BACKFILL =
+    "SELECT set_config('custom_fields.backfill_username', 'on', true)";
+  /**
+   * Sets username $2 in the metadata of custom fields created or updated by user $1 without username,
+   * has to run after {@link #ENABLE_USERNAME_BACKFILL} in the same transaction
+   */
+  public static final String BACKFILL_USERNAME = "UPDATE " + CUSTOM_FIELDS + " SET jsonb = jsonb_set(jsonb, "
+    + "'{metadata}', (jsonb -> 'metadata') "
+    + "|| CASE WHEN " + CREATED_BY_USERNAME_MISSING + " THEN jsonb_build_object('createdByUsername', $2::text) "
+    + "ELSE '{}'::jsonb END "
+    + "|| CASE WHEN " + UPDATED_BY_USERNAME_MISSING + " THEN jsonb_build_object('updatedByUsername', $2::text) "
+    + "ELSE '{}'::jsonb END) "
+    + "WHERE " + CREATED_BY_USERNAME_MISSING + " OR " + UPDATED_BY_USERNAME_MISSING;
 
   private CustomFieldsConstants() {
   }
@@ -0,0 +1,161 @@
+package org.folio.repository;
+
+import static org.folio.repository.CustomFieldsConstants.CUSTOM_FIELDS_TABLE;
+import static org.folio.repository.CustomFieldsConstants.ENTITY_TYPE_COLUMN;
+import static org.folio.repository.CustomFieldsConstants.JSONB_COLUMN;
+import static org.folio.repository.CustomFieldsConstants.ORDER_EXPRESSION;
+import static org.folio.repository.CustomFieldsConstants.REF_ID_COLUMN;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import javax.ws.rs.BadRequestException;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import org.z3950.zing.cql.CQLAndNode;
+import org.z3950.zing.cql.CQLBooleanNode;
+import org.z3950.zing.cql.CQLNode;
+import org.z3950.zing.cql.CQLNotNode;
+import org.z3950.zing.cql.CQLOrNode;
+import org.z3950.zing.cql.CQLParseException;
+import org.z3950.zing.cql.CQLParser;
+import org.z3950.zing.cql.CQLSortNode;
+import org.z3950.zing.cql.CQLTermNode;
+import org.z3950.zing.cql.Modifier;
+import org.z3950.zing.cql.ModifierSet;
+
+import org.folio.cql2pgjson.CQL2PgJSON;
+import org.folio.cql2pgjson.exception.FieldException;
+import org.folio.cql2pgjson.exception.QueryValidationException;
+
+/**
+ * Translates CQL queries of custom fields to SQL. The values of entityType, refId and order are stored
+ * in indexed columns, so exact matches of entityType and refId, comparisons of order and sorts by order
+ * are translated to conditions on these columns. The rest of the query is translated by {@link CQL2PgJSON}
+ * to conditions on the jsonb, which aren't indexed.
+ * <p>
+ * Matches on the columns are case-sensitive, unlike the jsonb conditions of {@link CQL2PgJSON}.
+ */
+final class CustomFieldsCql {
+
+  private static final String ALL_RECORDS_QUERY = "cql.allRecords=1";
+  private static final String ORDER_INDEX = "order";
+  private static final String DESCENDING_MODIFIER = "sort.descending";
+  private static final ImmutableMap<String, String> TEXT_COLUMNS = ImmutableMap.of(
+    "entityType", CUSTOM_FIELDS_TABLE + "." + ENTITY_TYPE_COLUMN,
+    "refId", CUSTOM_FIELDS_TABLE + "." + REF_ID_COLUMN);
+  private static final ImmutableSet<String> ORDER_RELATIONS = ImmutableSet.of("==", "<", ">", "<=", ">=", "<>");
+  private static final Pattern INTEGER = Pattern.compile("-?\\d{1,9}");
+  /**
+   * Masking and escaping characters of CQL terms, terms with them are left to {@link CQL2PgJSON}
+   */
+  private static final Pattern SPECIAL_CHARACTERS = Pattern.compile("[*?^\\\\]");
+
+  private final CQL2PgJSON cql2PgJson;
+  private final String where;
+  private final String orderBy;
+
+  private CustomFieldsCql(String query)
+    throws CQLParseException, IOException, FieldException, QueryValidationException {
+    cql2PgJson = new CQL2PgJSON(CUSTOM_FIELDS_TABLE + "." + JSONB_COLUMN);
+    CQLNode node = new CQLParser(CQLParser.V1POINT2).parse(query);
+    if (node instanceof CQLSortNode) {
+      CQLSortNode sortNode = (CQLSortNode) node;
+      where = where(sortNode.getSubtree());
+      orderBy = orderBy(sortNode.getSortIndexes());
+    } else {
+      where = where(node);
+      orderBy = "";
+    }
+  }
+
+  /**
+   * @throws BadRequestException if the query is invalid
+   */
+  static CustomFieldsCql translate(String query) {
+    try {
+      return new CustomFieldsCql(query);
+    } catch (Exception e) {
+      throw new BadRequestException(e.getMessage());
+    }
+  }
+
+  /**
+   * @return condition of the query, without WHERE
+   */
+  String getWhere() {
+    return where;
+  }
+
+  /**
+   * @return sort of the query without ORDER BY, empty if the query has no sort
+   */
+  String getOrderBy() {
+    return orderBy;
+  }
+
+  private String where(CQLNode node) throws QueryValidationException {
+    if (node instanceof CQLAndNode || node instanceof CQLOrNode || node instanceof CQLNotNode) {
+      CQLBooleanNode booleanNode = (CQLBooleanNode) node;
+      String left = where(booleanNode.getLeftOperand());
+      String right = where(booleanNode.getRightOperand());
+      if (node instanceof CQLAndNode) {
+        return "(" + left + ") AND (" + right + ")";
+      }
+      if (node instanceof CQLOrNode) {
+        return "(" + left + ") OR (" + right + ")";
+      }
+      return "(" + left + ") AND NOT (" + right + ")";
+    }
+    if (node instanceof CQLTermNode) {
+      String columnCondition = columnCondition((CQLTermNode) node);
+      if (columnCondition != null) {
+        return columnCondition;
+      }
+    }
+    return cql2PgJson.toSql(node.toCQL()).getWhere();
+  }
+
+  /**
+   * @return condition on the column of the term's index, or null if the term can't be translated to one
+   */
+  private static String columnCondition(CQLTermNode node) {
+    String relation = node.getRelation().getBase();
+    String term = node.getTerm();
+    if (!node.getRelation().getModifiers().isEmpty() || SPECIAL_CHARACTERS.matcher(term).find()) {
+      return null;
+    }
+    String column = TEXT_COLUMNS.get(node.getIndex());
+    if (column != null && "==".equals(relation)) {
+      return column + " = '" + term.replace("'", "''") + "'";
+    }
+    if (ORDER_INDEX.equals(node.getIndex()) && ORDER_RELATIONS.contains(relation) && INTEGER.matcher(term).matches()) {
+      return ORDER_EXPRESSION + " " + ("==".equals(relation) ? "=" : relation) + " " + term;
+    }
+    return null;
+  }
+
+  private String orderBy(List<ModifierSet> sortIndexes) throws QueryValidationException {
+    List<String> sorts = new ArrayList<>();
+    for (ModifierSet sortIndex : sortIndexes) {
+      if (ORDER_INDEX.equals(sortIndex.getBase())) {
+        sorts.add(ORDER_EXPRESSION + (isDescending(sortIndex) ? " DESC" : ""));
+      } else {
+        sorts.add(cql2PgJson.toSql(ALL_RECORDS_QUERY + " sortby " + sortIndex.toCQL()).getOrderBy());
+      }
+    }
+    return String.join(", ", sorts);
+  }
+
+  private static boolean isDescending(ModifierSet sortIndex) {
+    for (Modifier modifier : sortIndex.getModifiers()) {
+      if (DESCENDING_MODIFIER.equals(modifier.getType())) {
+        return true;
+      }
+    }
+    return false;
+  }
+}
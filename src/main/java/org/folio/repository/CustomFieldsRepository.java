@@ -1,5 +1,6 @@
 package org.folio.repository;
 
+import java.util.List;
 import java.util.Optional;
 
 import javax.annotation.Nullable;
@@ -33,7 +34,7 @@ public interface CustomFieldsRepository {
   Future<CustomField> save(CustomField entity, String tenantId, @Nullable AsyncResult<SQLConnection> connection);
 
   /**
-   * Fetches a custom field definition with given id
+   * Fetches a custom field definition with given id, from the read replica if it is configured.
    * If custom field with given id doesn't exist then returns an empty {@link Optional}.
    *
    * @param id       - id of custom field to get
@@ -42,40 +43,139 @@ public interface CustomFieldsRepository {
   Future<Optional<CustomField>> findById(String id, String tenantId);
 
   /**
-   * Fetches the maximum custom field reference id by given custom field name.
+   * Fetches a custom field definition with given id from the read replica or, if fromReplica is false,
+   * from the primary database.
+   * If custom field with given id doesn't exist then returns an empty {@link Optional}.
+   *
+   * @param id          - id of custom field to get
+   * @param tenantId    - tenant id
+   * @param fromReplica - result of {@link #readsFromReplica(String)} for the request
+   */
+  Future<Optional<CustomField>> findById(String id, String tenantId, boolean fromReplica);
+
+  /**
+   * Fetches a custom field definition with given id from the primary database, for reads that are followed
+   * by a change of the custom field.
+   * If custom field with given id doesn't exist then returns an empty {@link Optional}.
+   *
+   * @param id       - id of custom field to get
+   * @param tenantId - tenant id
+   */
+  Future<Optional<CustomField>> findByIdOnPrimary(String id, String tenantId);
+
+  /**
+   * Fetches a custom field definition with given reference id, the lookup uses the unique index on refId.
+   * If custom field with given reference id doesn't exist then returns an empty {@link Optional}.
+   *
+   * @param refId    - reference id of custom field to get
+   * @param tenantId - tenant id
+   */
+  Future<Optional<CustomField>> findByRefId(String refId, String tenantId);
+
+  /**
+   * Saves the definition of a new custom field with the next reference id of the given base name.
+   * If the order of the custom field is not set, the field gets the order after all existing fields.
+   * Reference id and order are assigned by the database in the statement that inserts the field,
+   * so concurrent saves get different reference ids and orders.
+   * Returns newly created custom field.
+   *
+   * @param entity        - definition of the custom field {@link CustomField} object to save
+   * @param refIdBaseName - base name of reference id, derived from the name of custom field
+   * @param tenantId      - tenant id
+   * @param connection    - {@link SQLConnection} to use
+   */
+  Future<CustomField> saveWithRefId(CustomField entity, String refIdBaseName, String tenantId,
+                                    @Nullable AsyncResult<SQLConnection> connection);
+
+  /**
+   * Saves the definitions of new custom fields in one statement, each with the next reference id of
+   * the base name at the same position of {@code refIdBaseNames}. The orders of the custom fields are kept.
+   * Returns newly created custom fields.
+   *
+   * @param entities       - definitions of custom fields {@link CustomField} objects to save
+   * @param refIdBaseNames - base names of reference ids, in the same order as entities
+   * @param tenantId       - tenant id
+   * @param connection     - {@link SQLConnection} to use
+   */
+  Future<List<CustomField>> saveWithRefIds(List<CustomField> entities, List<String> refIdBaseNames, String tenantId,
+                                           @Nullable AsyncResult<SQLConnection> connection);
+
+  /**
+   * Locks the last assigned order until the end of the transaction of the connection, so that concurrent
+   * inserts and renumbering of custom fields wait for it. Has to be called before the custom fields
+   * are reordered, renumbered or deleted.
+   *
+   * @param tenantId   - tenant id
+   * @param connection - {@link SQLConnection} of the transaction
+   */
+  Future<Void> lockLastOrder(String tenantId, AsyncResult<SQLConnection> connection);
+
+  /**
+   * Sets the last assigned order to the maximum order of existing custom fields.
+   * Has to be called after the custom fields are reordered, in the transaction that locked the last order.
    *
-   * @param customFieldName - name of custom field
-   * @param tenantId        - tenant id
+   * @param tenantId   - tenant id
+   * @param connection - {@link SQLConnection} to use
    */
-  Future<Integer> maxRefId(String customFieldName, String tenantId);
+  Future<Void> resetLastOrder(String tenantId, @Nullable AsyncResult<SQLConnection> connection);
 
   /**
-   * Fetches the maximum custom field reference id by given custom field name.
+   * Renumbers the "order" attribute of all custom fields to 1..N keeping their relative order,
+   * e.g. after a custom field is deleted. Only custom fields whose order changes are rewritten.
+   * Has to be called in the transaction that locked the last order.
    *
-   * @param customFieldName - name of custom field
-   * @param tenantId        - tenant id
-   * @param connection      - {@link SQLConnection} to use
+   * @param tenantId   - tenant id
+   * @param connection - {@link SQLConnection} of the transaction
    */
-  Future<Integer> maxRefId(String customFieldName, String tenantId, @Nullable AsyncResult<SQLConnection> connection);
+  Future<Void> renumberOrder(String tenantId, AsyncResult<SQLConnection> connection);
 
   /**
-   * Fetches the maximum value of "order" attribute in all custom fields,
-   * or 0 if there are no fields with "order" attribute.
+   * Sets the username in the metadata of custom fields that were created or updated by the user
+   * while the username was unknown.
+   * Returns number of updated custom fields.
    *
+   * @param userId   - id of the user
+   * @param username - username of the user
    * @param tenantId - tenant id
    */
-  Future<Integer> maxOrder(String tenantId);
+  Future<Integer> backfillUsername(String userId, String username, String tenantId);
 
+  /**
+   * Fetches all custom fields sorted by order, without CQL translation and counting.
+   *
+   * @param tenantId - tenant id
+   */
+  Future<List<CustomField>> findAll(String tenantId);
 
   /**
-   * Fetches custom fields collection that match specified CQL query.
+   * Fetches custom fields collection that match specified CQL query, each custom field has only the given
+   * properties. The properties are selected by the database, so the rest of the definitions is not transferred.
+   * The custom fields are read from the read replica or, if fromReplica is false, from the primary database.
+   * <p>
+   * If {@code after} is set, the page contains custom fields with greater order, sorted by order,
+   * and is read with the index on order instead of skipping the previous pages. The query must not have a sort.
+   * A query without sort is sorted by order.
+   *
+   * @param query        - CQL query
+   * @param fields       - names of the properties of {@link CustomField} to return, all properties if null
+   * @param after        - order of the last custom field of the previous page, or null
+   * @param totalRecords - how the total number of matching custom fields is calculated
+   * @param offset       - offset
+   * @param limit        - limit
+   * @param fromReplica  - result of {@link #readsFromReplica(String)} for the request
+   * @param tenantId     - tenant id
+   */
+  Future<CustomFieldCollection> findByQuery(String query, @Nullable List<String> fields, @Nullable Integer after,
+                                            TotalRecordsMode totalRecords, int offset, int limit,
+                                            boolean fromReplica, String tenantId);
+
+  /**
+   * Tells whether the reads of the tenant can go to the read replica. A request that reads several times
+   * takes it once, so that all its reads come from the same database.
    *
-   * @param query    - CQL query
-   * @param offset   - offset
-   * @param limit    - limit
    * @param tenantId - tenant id
    */
-  Future<CustomFieldCollection> findByQuery(String query, int offset, int limit, String tenantId);
+  boolean readsFromReplica(String tenantId);
 
   /**
    * Updates custom field definition.
@@ -94,6 +194,15 @@ public interface CustomFieldsRepository {
    */
   Future<Boolean> update(CustomField entity, String tenantId, @Nullable AsyncResult<SQLConnection> connection);
 
+  /**
+   * Updates definitions of custom fields in one statement.
+   *
+   * @param entities   - entities to update
+   * @param tenantId   - tenant id
+   * @param connection - {@link SQLConnection} to use
+   */
+  Future<Void> update(List<CustomField> entities, String tenantId, @Nullable AsyncResult<SQLConnection> connection);
+
   /**
    * Deletes custom field with given id.
    *
@@ -110,4 +219,13 @@ public interface CustomFieldsRepository {
    * @param connection - {@link SQLConnection} to use
    */
   Future<Boolean> delete(String id, String tenantId, @Nullable AsyncResult<SQLConnection> connection);
+
+  /**
+   * Deletes custom fields with given ids in one statement.
+   *
+   * @param ids        - ids of custom fields to delete
+   * @param tenantId   - tenant id
+   * @param connection - {@link SQLConnection} to use
+   */
+  Future<Void> delete(List<String> ids, String tenantId, @Nullable AsyncResult<SQLConnection> connection);
 }
@@ -1,23 +1,51 @@
 package org.folio.repository;
 
-import static org.folio.repository.CustomFieldsConstants.CUSTOM_FIELDS_TABLE;
+import static org.folio.db.DbUtils.executeInTransactionWithVertxFuture;
+import static org.folio.repository.CustomFieldsConstants.AFTER_ORDER_CONDITION;
+import static org.folio.repository.CustomFieldsConstants.BACKFILL_USERNAME;
+import static org.folio.repository.CustomFieldsConstants.DELETE_CUSTOM_FIELD;
+import static org.folio.repository.CustomFieldsConstants.DELETE_CUSTOM_FIELDS;
+import static org.folio.repository.CustomFieldsConstants.ENABLE_USERNAME_BACKFILL;
+import static org.folio.repository.CustomFieldsConstants.EXPLAIN_SELECT;
+import static org.folio.repository.CustomFieldsConstants.ID_COLUMN;
+import static org.folio.repository.CustomFieldsConstants.INSERT_CUSTOM_FIELD;
+import static org.folio.repository.CustomFieldsConstants.INSERT_CUSTOM_FIELDS;
+import static org.folio.repository.CustomFieldsConstants.INSERT_CUSTOM_FIELD_AS_IS;
+import static org.folio.repository.CustomFieldsConstants.INSERT_LAST_CUSTOM_FIELD;
 import static org.folio.repository.CustomFieldsConstants.JSONB_COLUMN;
-import static org.folio.repository.CustomFieldsConstants.MAX_ORDER_COLUMN;
-import static org.folio.repository.CustomFieldsConstants.REF_ID_REGEX;
-import static org.folio.repository.CustomFieldsConstants.SELECT_MAX_ORDER;
-import static org.folio.repository.CustomFieldsConstants.SELECT_REF_IDS;
-import static org.folio.repository.CustomFieldsConstants.VALUES_COLUMN;
-import static org.folio.repository.CustomFieldsConstants.WHERE_ID_EQUALS_CLAUSE;
+import static org.folio.repository.CustomFieldsConstants.LOCK_ORDER_COUNTER;
+import static org.folio.repository.CustomFieldsConstants.ORDER_COLUMN;
+import static org.folio.repository.CustomFieldsConstants.ORDER_EXPRESSION;
+import static org.folio.repository.CustomFieldsConstants.PAGE;
+import static org.folio.repository.CustomFieldsConstants.REF_ID_COLUMN;
+import static org.folio.repository.CustomFieldsConstants.RENUMBER_ORDER;
+import static org.folio.repository.CustomFieldsConstants.RESET_ORDER_COUNTER;
+import static org.folio.repository.CustomFieldsConstants.SELECT_ALL;
+import static org.folio.repository.CustomFieldsConstants.SELECT_BY_ID;
+import static org.folio.repository.CustomFieldsConstants.SELECT_BY_REF_ID;
+import static org.folio.repository.CustomFieldsConstants.SELECT_COUNT;
+import static org.folio.repository.CustomFieldsConstants.SELECT_PROPERTIES;
+import static org.folio.repository.CustomFieldsConstants.TOTAL_RECORDS_COLUMN;
+import static org.folio.repository.CustomFieldsConstants.TOTAL_RECORDS_NOT_CALCULATED;
+import static org.folio.repository.CustomFieldsConstants.UPDATE_CUSTOM_FIELD;
+import static org.folio.repository.CustomFieldsConstants.UPDATE_CUSTOM_FIELDS;
 
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 import javax.annotation.Nullable;
+import javax.ws.rs.BadRequestException;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
 import io.vertx.core.AsyncResult;
 import io.vertx.core.Future;
 import io.vertx.core.Promise;
 import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
 import io.vertx.core.logging.Logger;
 import io.vertx.core.logging.LoggerFactory;
 import io.vertx.sqlclient.Row;
@@ -27,14 +55,12 @@ import org.apache.commons.lang.StringUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
-import org.folio.db.CqlQuery;
 import org.folio.db.RowSetUtils;
 import org.folio.db.exc.translation.DBExceptionTranslator;
 import org.folio.rest.jaxrs.model.CustomField;
 import org.folio.rest.jaxrs.model.CustomFieldCollection;
 import org.folio.rest.persist.PostgresClient;
 import org.folio.rest.persist.SQLConnection;
-import org.folio.rest.persist.interfaces.Results;
 
 @Component
 public class CustomFieldsRepositoryImpl implements CustomFieldsRepository {
@@ -45,6 +71,12 @@ public class CustomFieldsRepositoryImpl implements CustomFieldsRepository {
   private Vertx vertx;
   @Autowired
   private DBExceptionTranslator excTranslator;
+  @Autowired
+  private StatementMetrics metrics;
+  @Autowired
+  private PrimaryDatabase primaryDatabase;
+  @Autowired
+  private ReadReplica readReplica;
 
   @Override
   public Future<CustomField> save(CustomField entity, String tenantId) {
@@ -54,73 +86,181 @@ public class CustomFieldsRepositoryImpl implements CustomFieldsRepository {
 
   @Override
   public Future<CustomField> save(CustomField entity, String tenantId, @Nullable AsyncResult<SQLConnection> connection) {
-    Promise<String> promise = Promise.promise();
     setIdIfMissing(entity);
     LOG.debug("Saving a custom field with id: {}.", entity.getId());
-    PostgresClient client = pgClient(tenantId);
-    if (connection != null) {
-      client.save(connection, CUSTOM_FIELDS_TABLE, entity.getId(), entity, promise);
-    } else {
-      client.save(CUSTOM_FIELDS_TABLE, entity.getId(), entity, promise);
+    JsonObject jsonb;
+    try {
+      jsonb = PostgresClient.pojo2JsonObject(entity);
+    } catch (JsonProcessingException e) {
+      return Future.failedFuture(e);
     }
-
-    return promise.future().map(id -> {
-      entity.setId(id);
-      return entity;
-    }).recover(excTranslator.translateOrPassBy());
+    Tuple parameters = Tuple.of(UUID.fromString(entity.getId()), jsonb);
+    return write("insertCustomField", INSERT_CUSTOM_FIELD_AS_IS, tenantId, parameters, connection)
+      .map(rowSet -> {
+        entity.setId(rowSet.iterator().next().getUUID(ID_COLUMN).toString());
+        return entity;
+      });
   }
 
 
   @Override
   public Future<Optional<CustomField>> findById(String id, String tenantId) {
-    Promise<CustomField> promise = Promise.promise();
-    LOG.debug("Getting a custom field with id: {}.", id);
-    pgClient(tenantId).getById(CUSTOM_FIELDS_TABLE, id, CustomField.class, promise);
+    return findById(id, tenantId, readReplica.readsFromReplica(tenantId));
+  }
 
-    return promise.future().map(Optional::ofNullable)
-      .recover(excTranslator.translateOrPassBy());
+  @Override
+  public Future<Optional<CustomField>> findByIdOnPrimary(String id, String tenantId) {
+    return findById(id, tenantId, false);
+  }
+
+  @Override
+  public Future<Optional<CustomField>> findById(String id, String tenantId, boolean fromReplica) {
+    LOG.debug("Getting a custom field with id: {}.", id);
+    UUID uuid;
+    try {
+      uuid = UUID.fromString(id);
+    } catch (IllegalArgumentException e) {
+      return Future.succeededFuture(Optional.empty());
+    }
+    return read("selectById", sql(SELECT_BY_ID, tenantId), tenantId, Tuple.of(uuid), fromReplica)
+      .map(rowSet -> RowSetUtils.streamOf(rowSet).findFirst().map(this::mapCustomField));
   }
 
 
   @Override
-  public Future<Integer> maxRefId(String customFieldName, String tenantId) {
-    return maxRefId(customFieldName, tenantId, null);
+  public Future<Optional<CustomField>> findByRefId(String refId, String tenantId) {
+    LOG.debug("Getting a custom field with ref id: {}.", refId);
+    return read("selectByRefId", sql(SELECT_BY_REF_ID, tenantId), tenantId, Tuple.of(refId),
+      readReplica.readsFromReplica(tenantId))
+      .map(rowSet -> RowSetUtils.streamOf(rowSet).findFirst().map(this::mapCustomField));
   }
 
   @Override
-  public Future<Integer> maxRefId(String customFieldName, String tenantId,
-                                  @Nullable AsyncResult<SQLConnection> connection) {
-    Promise<RowSet<Row>> promise = Promise.promise();
-    String query = String.format(SELECT_REF_IDS, getCFTableName(tenantId));
-    String refIdRegex = String.format(REF_ID_REGEX, customFieldName);
-    Tuple parameters = Tuple.of(refIdRegex);
-    LOG.debug("Getting custom field ref ids by given name: {}.", customFieldName);
-    PostgresClient client = pgClient(tenantId);
-    if (connection != null) {
-      client.select(connection, query, parameters, promise);
-    } else {
-      client.select(query, parameters, promise);
+  public Future<CustomField> saveWithRefId(CustomField entity, String refIdBaseName, String tenantId,
+                                           @Nullable AsyncResult<SQLConnection> connection) {
+    setIdIfMissing(entity);
+    LOG.debug("Saving a custom field with id: {} and ref id base name: {}.", entity.getId(), refIdBaseName);
+    JsonObject jsonb;
+    try {
+      jsonb = PostgresClient.pojo2JsonObject(entity);
+    } catch (JsonProcessingException e) {
+      return Future.failedFuture(e);
     }
-    return promise.future().map(this::mapMaxRefId)
-      .recover(excTranslator.translateOrPassBy());
+    Tuple parameters = Tuple.of(refIdBaseName, UUID.fromString(entity.getId()), jsonb);
+    Future<RowSet<Row>> inserted = entity.getOrder() == null
+      ? write("insertLastCustomField", INSERT_LAST_CUSTOM_FIELD, tenantId, parameters, connection)
+      : write("insertCustomFieldWithRefId", INSERT_CUSTOM_FIELD, tenantId, parameters, connection);
+    return inserted.map(rowSet -> {
+      Row row = rowSet.iterator().next();
+      return entity
+        .withRefId(row.getString(REF_ID_COLUMN))
+        .withOrder(row.getInteger(ORDER_COLUMN));
+    });
   }
 
   @Override
-  public Future<Integer> maxOrder(String tenantId) {
-    Promise<Row> promise = Promise.promise();
-    final String query = String.format(SELECT_MAX_ORDER, getCFTableName(tenantId));
-    LOG.debug("Getting maximum order of custom fields.");
-    pgClient(tenantId).selectSingle(query, promise);
-    return promise.future().map(this::mapMaxOrder)
-      .recover(excTranslator.translateOrPassBy());
+  public Future<List<CustomField>> saveWithRefIds(List<CustomField> entities, List<String> refIdBaseNames,
+                                                  String tenantId, @Nullable AsyncResult<SQLConnection> connection) {
+    if (entities.isEmpty()) {
+      return Future.succeededFuture(entities);
+    }
+    entities.forEach(this::setIdIfMissing);
+    LOG.debug("Saving {} custom fields.", entities.size());
+    JsonArray jsonb;
+    try {
+      jsonb = toJsonArray(entities);
+    } catch (JsonProcessingException e) {
+      return Future.failedFuture(e);
+    }
+    Tuple parameters = Tuple.of(jsonb, refIdBaseNames.toArray(new String[0]));
+    return write("insertCustomFields", INSERT_CUSTOM_FIELDS, tenantId, parameters, connection)
+      .map(rowSet -> {
+        Map<String, String> refIds = RowSetUtils.streamOf(rowSet)
+          .collect(Collectors.toMap(row -> row.getUUID(ID_COLUMN).toString(), row -> row.getString(REF_ID_COLUMN)));
+        entities.forEach(entity -> entity.setRefId(refIds.get(entity.getId())));
+        return entities;
+      });
   }
 
   @Override
-  public Future<CustomFieldCollection> findByQuery(String query, int offset, int limit, String tenantId) {
-    CqlQuery<CustomField> q = new CqlQuery<>(pgClient(tenantId), CUSTOM_FIELDS_TABLE, CustomField.class);
-    LOG.debug("Getting custom fields by query: {}.", query);
-    return q.get(query, offset, limit).map(this::toCustomFieldCollection)
-      .recover(excTranslator.translateOrPassBy());
+  public Future<Void> lockLastOrder(String tenantId, AsyncResult<SQLConnection> connection) {
+    LOG.debug("Locking order counter of custom fields.");
+    return execute("lockOrderCounter", LOCK_ORDER_COUNTER, tenantId, Tuple.tuple(), connection)
+      .map(rowSet -> null);
+  }
+
+  @Override
+  public Future<Void> resetLastOrder(String tenantId, @Nullable AsyncResult<SQLConnection> connection) {
+    LOG.debug("Resetting order counter of custom fields.");
+    return write("resetOrderCounter", RESET_ORDER_COUNTER, tenantId, Tuple.tuple(), connection)
+      .map(rowSet -> null);
+  }
+
+  @Override
+  public Future<Void> renumberOrder(String tenantId, AsyncResult<SQLConnection> connection) {
+    LOG.debug("Renumbering order of custom fields.");
+    return write("renumberOrder", RENUMBER_ORDER, tenantId, Tuple.tuple(), connection)
+      .map(rowSet -> null);
+  }
+
+  @Override
+  public Future<Integer> backfillUsername(String userId, String username, String tenantId) {
+    LOG.debug("Setting username of user {} in metadata of custom fields.", userId);
+    return executeInTransactionWithVertxFuture(tenantId, vertx, (postgresClient, connection) ->
+      execute("enableUsernameBackfill", ENABLE_USERNAME_BACKFILL, tenantId, Tuple.tuple(), connection)
+        .compose(enabled -> write("backfillUsername", BACKFILL_USERNAME, tenantId, Tuple.of(userId, username),
+          connection)))
+      .map(RowSet::rowCount);
+  }
+
+  @Override
+  public Future<List<CustomField>> findAll(String tenantId) {
+    LOG.debug("Getting all custom fields.");
+    return execute("selectAll", SELECT_ALL, tenantId, Tuple.tuple(), null)
+      .map(rowSet -> RowSetUtils.streamOf(rowSet).map(this::mapCustomField).collect(Collectors.toList()));
+  }
+
+  @Override
+  public Future<CustomFieldCollection> findByQuery(String query, @Nullable List<String> fields, @Nullable Integer after,
+                                                   TotalRecordsMode totalRecords, int offset, int limit,
+                                                   boolean fromReplica, String tenantId) {
+    LOG.debug("Getting properties {} of custom fields after order {} by query: {}.", fields, after, query);
+    CustomFieldsCql cql;
+    try {
+      cql = CustomFieldsCql.translate(query);
+    } catch (BadRequestException e) {
+      return Future.failedFuture(e);
+    }
+    String condition = "(" + cql.getWhere() + ")";
+    StringBuilder sql = new StringBuilder(sql(SELECT_PROPERTIES, tenantId)).append(condition);
+    Tuple parameters = Tuple.tuple()
+      .addValue(fields != null ? fields.toArray(new String[0]) : null)
+      .addInteger(limit)
+      .addInteger(offset);
+    if (after != null) {
+      sql.append(AFTER_ORDER_CONDITION).append(" ORDER BY ").append(ORDER_EXPRESSION);
+      parameters.addInteger(after);
+    } else if (StringUtils.isNotBlank(cql.getOrderBy())) {
+      sql.append(" ORDER BY ").append(cql.getOrderBy());
+    } else {
+      sql.append(" ORDER BY ").append(ORDER_EXPRESSION);
+    }
+    sql.append(PAGE);
+    return read("selectPageByQuery", sql.toString(), tenantId, parameters, fromReplica)
+      .compose(rowSet -> {
+        List<CustomField> customFields = RowSetUtils.streamOf(rowSet)
+          .map(row -> fields != null ? selectedProperties(row, fields) : mapCustomField(row))
+          .collect(Collectors.toList());
+        boolean lastPage = customFields.size() < limit && (!customFields.isEmpty() || offset == 0);
+        Integer knownTotal = after == null && lastPage ? offset + customFields.size() : null;
+        return countTotalRecords(condition, totalRecords, knownTotal, tenantId, fromReplica)
+          .map(total -> toCustomFieldCollection(customFields, total));
+      });
+  }
+
+  @Override
+  public boolean readsFromReplica(String tenantId) {
+    return readReplica.readsFromReplica(tenantId);
   }
 
   @Override
@@ -130,18 +270,33 @@ public class CustomFieldsRepositoryImpl implements CustomFieldsRepository {
 
   @Override
   public Future<Boolean> update(CustomField entity, String tenantId, @Nullable AsyncResult<SQLConnection> connection) {
-    Promise<RowSet<Row>> promise = Promise.promise();
     LOG.debug("Updating a custom field with id: {}.", entity.getId());
+    JsonObject jsonb;
+    try {
+      jsonb = PostgresClient.pojo2JsonObject(entity);
+    } catch (JsonProcessingException e) {
+      return Future.failedFuture(e);
+    }
+    Tuple parameters = Tuple.of(UUID.fromString(entity.getId()), jsonb);
+    return write("updateCustomField", UPDATE_CUSTOM_FIELD, tenantId, parameters, connection)
+      .map(rowSet -> rowSet.rowCount() == 1);
+  }
 
-    PostgresClient client = pgClient(tenantId);
-    if (connection != null) {
-      String whereClause = String.format(WHERE_ID_EQUALS_CLAUSE, entity.getId());
-      client.update(connection, CUSTOM_FIELDS_TABLE, entity, JSONB_COLUMN, whereClause, false, promise);
-    } else {
-      client.update(CUSTOM_FIELDS_TABLE, entity, entity.getId(), promise);
+  @Override
+  public Future<Void> update(List<CustomField> entities, String tenantId,
+                             @Nullable AsyncResult<SQLConnection> connection) {
+    if (entities.isEmpty()) {
+      return Future.succeededFuture();
     }
-    return promise.future().map(rowSet -> rowSet.rowCount() == 1)
-      .recover(excTranslator.translateOrPassBy());
+    LOG.debug("Updating {} custom fields.", entities.size());
+    JsonArray jsonb;
+    try {
+      jsonb = toJsonArray(entities);
+    } catch (JsonProcessingException e) {
+      return Future.failedFuture(e);
+    }
+    return write("updateCustomFields", UPDATE_CUSTOM_FIELDS, tenantId, Tuple.of(jsonb), connection)
+      .map(rowSet -> null);
   }
 
   @Override
@@ -151,32 +306,140 @@ public class CustomFieldsRepositoryImpl implements CustomFieldsRepository {
 
   @Override
   public Future<Boolean> delete(String id, String tenantId, @Nullable AsyncResult<SQLConnection> connection) {
-    Promise<RowSet<Row>> promise = Promise.promise();
     LOG.debug("Deleting custom field by given id: {}.", id);
+    return write("deleteCustomField", DELETE_CUSTOM_FIELD, tenantId, Tuple.of(UUID.fromString(id)), connection)
+      .map(rowSet -> rowSet.rowCount() == 1);
+  }
+
+  @Override
+  public Future<Void> delete(List<String> ids, String tenantId, @Nullable AsyncResult<SQLConnection> connection) {
+    if (ids.isEmpty()) {
+      return Future.succeededFuture();
+    }
+    LOG.debug("Deleting custom fields by given ids: {}.", ids);
+    Tuple parameters = Tuple.of(ids.stream().map(UUID::fromString).toArray(UUID[]::new));
+    return write("deleteCustomFields", DELETE_CUSTOM_FIELDS, tenantId, parameters, connection)
+      .map(rowSet -> null);
+  }
+
+  /**
+   * Executes the statement in the schema of the tenant and records its latency in {@link StatementMetrics}
+   *
+   * @param statement   - name of the statement in metrics
+   * @param sqlTemplate - SQL with the schema as the only format argument
+   */
+  private Future<RowSet<Row>> execute(String statement, String sqlTemplate, String tenantId, Tuple parameters,
+                                      @Nullable AsyncResult<SQLConnection> connection) {
+    return executeSql(statement, sql(sqlTemplate, tenantId), tenantId, parameters, connection);
+  }
+
+  /**
+   * Executes the statement that changes custom fields, so that the following reads of the tenant
+   * go to the primary database
+   */
+  private Future<RowSet<Row>> write(String statement, String sqlTemplate, String tenantId, Tuple parameters,
+                                    @Nullable AsyncResult<SQLConnection> connection) {
+    return execute(statement, sqlTemplate, tenantId, parameters, connection)
+      .onComplete(result -> readReplica.recordWrite(tenantId));
+  }
+
+  /**
+   * Executes the read-only statement on the replica or, if fromReplica is false, on the primary database
+   */
+  private Future<RowSet<Row>> read(String statement, String sql, String tenantId, Tuple parameters,
+                                   boolean fromReplica) {
+    if (!fromReplica) {
+      return executeSql(statement, sql, tenantId, parameters, null);
+    }
+    long start = System.nanoTime();
+    return readReplica.execute(tenantId, sql, parameters)
+      .onComplete(result -> metrics.record(statement + "OnReplica", System.nanoTime() - start))
+      .recover(excTranslator.translateOrPassBy());
+  }
+
+  /**
+   * Executes the statement on the primary database, with the connection of the transaction if it is given,
+   * otherwise with a connection of {@link PrimaryDatabase} that reuses the prepared statement
+   */
+  private Future<RowSet<Row>> executeSql(String statement, String sql, String tenantId, Tuple parameters,
+                                         @Nullable AsyncResult<SQLConnection> connection) {
+    long start = System.nanoTime();
+    Future<RowSet<Row>> result;
     if (connection != null) {
-      pgClient(tenantId).delete(connection, CUSTOM_FIELDS_TABLE, id, promise);
+      Promise<RowSet<Row>> promise = Promise.promise();
+      pgClient(tenantId).execute(connection, sql, parameters, promise);
+      result = promise.future();
     } else {
-      pgClient(tenantId).delete(CUSTOM_FIELDS_TABLE, id, promise);
+      result = primaryDatabase.execute(tenantId, sql, parameters);
     }
-    return promise.future().map(rowSet -> rowSet.rowCount() == 1)
+    return result
+      .onComplete(executed -> metrics.record(statement, System.nanoTime() - start))
       .recover(excTranslator.translateOrPassBy());
   }
 
-  private Integer mapMaxRefId(RowSet<Row> rowSet) {
-    if (rowSet.rowCount() == 1 && !RowSetUtils.mapFirstItem(rowSet, row -> row.getString(VALUES_COLUMN)).contains("_")) {
-      return 1;
+  private String sql(String sqlTemplate, String tenantId) {
+    return String.format(sqlTemplate, PostgresClient.convertToPsqlStandard(tenantId));
+  }
+
+  /**
+   * Calculates the total number of custom fields that match the condition
+   *
+   * @param knownTotal - total number derived from the page, used instead of an estimate
+   */
+  private Future<Integer> countTotalRecords(String condition, TotalRecordsMode mode, @Nullable Integer knownTotal,
+                                            String tenantId, boolean fromReplica) {
+    switch (mode) {
+      case NONE:
+        return Future.succeededFuture(TOTAL_RECORDS_NOT_CALCULATED);
+      case ESTIMATED:
+        if (knownTotal != null) {
+          return Future.succeededFuture(knownTotal);
+        }
+        return read("explainSelectByQuery", sql(EXPLAIN_SELECT, tenantId) + condition, tenantId,
+          Tuple.tuple(), fromReplica)
+          .map(rowSet -> estimatedRows(rowSet.iterator().next()));
+      case EXACT:
+      default:
+        return read("selectCountByQuery", sql(SELECT_COUNT, tenantId) + condition, tenantId, Tuple.tuple(),
+          fromReplica)
+          .map(rowSet -> rowSet.iterator().next().getLong(TOTAL_RECORDS_COLUMN).intValue());
     }
-    return RowSetUtils.streamOf(rowSet)
-      .map(row -> row.getString(VALUES_COLUMN))
-      .map(s -> StringUtils.substringAfter(s, "_"))
-      .filter(StringUtils::isNotBlank)
-      .mapToInt(Integer::parseInt)
-      .max().orElse(0);
   }
 
-  private Integer mapMaxOrder(Row result) {
-    Integer maxOrder = result.getInteger(MAX_ORDER_COLUMN);
-    return maxOrder != null ? maxOrder : 0;
+  private static int estimatedRows(Row explainRow) {
+    Object plan = explainRow.getValue(0);
+    JsonArray plans = plan instanceof JsonArray ? (JsonArray) plan : new JsonArray(plan.toString());
+    return plans.getJsonObject(0).getJsonObject("Plan").getInteger("Plan Rows");
+  }
+
+  private JsonArray toJsonArray(List<CustomField> entities) throws JsonProcessingException {
+    JsonArray array = new JsonArray();
+    for (CustomField entity : entities) {
+      array.add(PostgresClient.pojo2JsonObject(entity));
+    }
+    return array;
+  }
+
+  private CustomField mapCustomField(Row row) {
+    return ((JsonObject) row.getValue(JSONB_COLUMN)).mapTo(CustomField.class);
+  }
+
+  /**
+   * Maps the selected properties of custom field, the properties that have default values are cleared
+   * if they aren't selected, so that the defaults aren't returned as values of the custom field
+   */
+  private CustomField selectedProperties(Row row, List<String> fields) {
+    CustomField customField = mapCustomField(row);
+    if (!fields.contains("visible")) {
+      customField.setVisible(null);
+    }
+    if (!fields.contains("required")) {
+      customField.setRequired(null);
+    }
+    if (!fields.contains("isRepeatable")) {
+      customField.setIsRepeatable(null);
+    }
+    return customField;
   }
 
   private void setIdIfMissing(CustomField customField) {
@@ -185,14 +448,10 @@ public class CustomFieldsRepositoryImpl implements CustomFieldsRepository {
     }
   }
 
-  private CustomFieldCollection toCustomFieldCollection(Results<CustomField> results) {
+  private CustomFieldCollection toCustomFieldCollection(List<CustomField> customFields, Integer totalRecords) {
     return new CustomFieldCollection()
-      .withCustomFields(results.getResults())
-      .withTotalRecords(results.getResultInfo().getTotalRecords());
-  }
-
-  private String getCFTableName(String tenantId) {
-    return PostgresClient.convertToPsqlStandard(tenantId) + "." + CUSTOM_FIELDS_TABLE;
+      .withCustomFields(customFields)
+      .withTotalRecords(totalRecords);
   }
 
   private PostgresClient pgClient(String tenantId) {
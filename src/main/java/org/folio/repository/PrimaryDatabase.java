@@ -0,0 +1,42 @@
+package org.folio.repository;
+
+import java.util.function.UnaryOperator;
+
+import javax.annotation.PreDestroy;
+
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.sqlclient.Row;
+import io.vertx.sqlclient.RowSet;
+import io.vertx.sqlclient.Tuple;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Primary database of the module, accessed with connection pools of the module whose connections cache
+ * prepared statements. Statements executed in a transaction use the connection of the transaction
+ * instead, which belongs to RMB.
+ */
+@Component
+public class PrimaryDatabase {
+
+  private final TenantPools pools;
+
+  @Autowired
+  public PrimaryDatabase(Vertx vertx, @Value("${custom.fields.db.pool.size:4}") int poolSize) {
+    this.pools = new TenantPools(vertx, poolSize, UnaryOperator.identity());
+  }
+
+  /**
+   * Executes the statement with a connection of the tenant
+   */
+  public Future<RowSet<Row>> execute(String tenantId, String sql, Tuple parameters) {
+    return pools.execute(tenantId, sql, parameters);
+  }
+
+  @PreDestroy
+  public void close() {
+    pools.close();
+  }
+}
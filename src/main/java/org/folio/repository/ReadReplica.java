@@ -0,0 +1,108 @@
+package org.folio.repository;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PreDestroy;
+
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.logging.Logger;
+import io.vertx.core.logging.LoggerFactory;
+import io.vertx.sqlclient.Row;
+import io.vertx.sqlclient.RowSet;
+import io.vertx.sqlclient.Tuple;
+import org.apache.commons.lang.StringUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Optional read-only replica of the module database. The replica is used only if its host is configured,
+ * it is accessed with the user and password of the primary database and, unless configured, its database name.
+ * <p>
+ * Replication is asynchronous, so after a write of a tenant from this instance the reads of the tenant go
+ * to the primary database until the read-your-writes period is over.
+ */
+@Component
+public class ReadReplica {
+
+  private static final Logger LOG = LoggerFactory.getLogger(ReadReplica.class);
+
+  private final ConcurrentMap<String, Long> lastWriteNanos = new ConcurrentHashMap<>();
+
+  @Autowired
+  private Vertx vertx;
+  @Value("${custom.fields.db.replica.host:}")
+  private String host;
+  @Value("${custom.fields.db.replica.port:5432}")
+  private int port;
+  @Value("${custom.fields.db.replica.database:}")
+  private String database;
+  @Value("${custom.fields.db.replica.pool.size:5}")
+  private int poolSize;
+  @Value("${custom.fields.db.replica.read.your.writes.seconds:10}")
+  private long readYourWritesSeconds;
+
+  private TenantPools pools;
+
+  public boolean isEnabled() {
+    return StringUtils.isNotBlank(host);
+  }
+
+  /**
+   * Records a write of the tenant, the following reads of the tenant go to the primary database
+   * for the read-your-writes period
+   */
+  public void recordWrite(String tenantId) {
+    if (isEnabled()) {
+      lastWriteNanos.put(tenantId, System.nanoTime());
+    }
+  }
+
+  /**
+   * @return true if reads of the tenant can go to the replica
+   */
+  public boolean readsFromReplica(String tenantId) {
+    if (!isEnabled()) {
+      return false;
+    }
+    Long lastWrite = lastWriteNanos.get(tenantId);
+    if (lastWrite == null) {
+      return true;
+    }
+    if (System.nanoTime() - lastWrite < TimeUnit.SECONDS.toNanos(readYourWritesSeconds)) {
+      return false;
+    }
+    lastWriteNanos.remove(tenantId, lastWrite);
+    return true;
+  }
+
+  /**
+   * Executes the read-only statement of the tenant on the replica. Each connection of the replica prepares
+   * the statement on its first execution and reuses it for the following executions of the same SQL.
+   */
+  public Future<RowSet<Row>> execute(String tenantId, String sql, Tuple parameters) {
+    return pools().execute(tenantId, sql, parameters);
+  }
+
+  @PreDestroy
+  public synchronized void close() {
+    if (pools != null) {
+      pools.close();
+      pools = null;
+    }
+  }
+
+  private synchronized TenantPools pools() {
+    if (pools == null) {
+      LOG.info("Reading custom fields from replica {}:{}.", host, port);
+      pools = new TenantPools(vertx, poolSize, options -> {
+        options.setHost(host).setPort(port);
+        return StringUtils.isNotBlank(database) ? options.setDatabase(database) : options;
+      });
+    }
+    return pools;
+  }
+}
@@ -0,0 +1,136 @@
+package org.folio.repository;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import io.vertx.core.Vertx;
+import io.vertx.core.logging.Logger;
+import io.vertx.core.logging.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Count and latency of the SQL statements executed by {@link CustomFieldsRepositoryImpl}, per statement name.
+ * The statistics are logged periodically if any statement was executed since the previous log.
+ */
+@Component
+public class StatementMetrics {
+
+  private static final Logger LOG = LoggerFactory.getLogger(StatementMetrics.class);
+
+  private final ConcurrentMap<String, Timer> timers = new ConcurrentHashMap<>();
+  private final LongAdder executedSinceLog = new LongAdder();
+
+  @Autowired
+  private Vertx vertx;
+  @Value("${custom.fields.db.metrics.log.interval.seconds:300}")
+  private long logIntervalSeconds;
+
+  private long timerId = -1;
+
+  @PostConstruct
+  public void start() {
+    if (logIntervalSeconds > 0) {
+      timerId = vertx.setPeriodic(TimeUnit.SECONDS.toMillis(logIntervalSeconds), id -> logStats());
+    }
+  }
+
+  @PreDestroy
+  public void stop() {
+    if (timerId != -1) {
+      vertx.cancelTimer(timerId);
+      timerId = -1;
+    }
+  }
+
+  /**
+   * Records one execution of the statement
+   *
+   * @param statement     - name of the statement
+   * @param durationNanos - time from sending the statement to receiving its result
+   */
+  public void record(String statement, long durationNanos) {
+    timers.computeIfAbsent(statement, name -> new Timer()).record(durationNanos);
+    executedSinceLog.increment();
+  }
+
+  /**
+   * @return statistics of executed statements by statement name
+   */
+  public Map<String, Stats> stats() {
+    Map<String, Stats> stats = new TreeMap<>();
+    timers.forEach((statement, timer) -> stats.put(statement, timer.stats()));
+    return Collections.unmodifiableMap(stats);
+  }
+
+  private void logStats() {
+    if (executedSinceLog.sumThenReset() > 0) {
+      LOG.info("SQL statement statistics: {}", stats());
+    }
+  }
+
+  private static final class Timer {
+
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+    void record(long durationNanos) {
+      count.increment();
+      totalNanos.add(durationNanos);
+      maxNanos.accumulate(durationNanos);
+    }
+
+    Stats stats() {
+      return new Stats(count.sum(), totalNanos.sum(), maxNanos.get());
+    }
+  }
+
+  /**
+   * Snapshot of the statistics of one statement
+   */
+  public static final class Stats {
+
+    private final long count;
+    private final long totalNanos;
+    private final long maxNanos;
+
+    Stats(long count, long totalNanos, long maxNanos) {
+      this.count = count;
+      this.totalNanos = totalNanos;
+      this.maxNanos = maxNanos;
+    }
+
+    public long getCount() {
+      return count;
+    }
+
+    public long getTotalNanos() {
+      return totalNanos;
+    }
+
+    public long getMaxNanos() {
+      return maxNanos;
+    }
+
+    public double getMeanMillis() {
+      return count == 0 ? 0 : (double) totalNanos / count / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    @Override
+    public String toString() {
+      return String.format("{count=%d, mean=%.3fms, max=%.3fms}", count, getMeanMillis(),
+        (double) maxNanos / TimeUnit.MILLISECONDS.toNanos(1));
+    }
+  }
+}
@@ -0,0 +1,61 @@
+package org.folio.repository;
+
+import static org.folio.repository.ConnectOptionsUtil.connectOptions;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.UnaryOperator;
+
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+import io.vertx.pgclient.PgConnectOptions;
+import io.vertx.pgclient.PgPool;
+import io.vertx.sqlclient.PoolOptions;
+import io.vertx.sqlclient.Row;
+import io.vertx.sqlclient.RowSet;
+import io.vertx.sqlclient.Tuple;
+
+import org.folio.rest.persist.PostgresClient;
+
+/**
+ * Connection pools of the module, one per tenant, connected with the connection config of the tenant's
+ * {@link PostgresClient}. Connections cache prepared statements: a statement is prepared on its first execution
+ * on a connection and reused for the following executions of the same SQL. Statements are qualified by the schema
+ * of the tenant, so each tenant has its own prepared statements.
+ */
+class TenantPools {
+
+  private final ConcurrentMap<String, PgPool> pools = new ConcurrentHashMap<>();
+  private final Vertx vertx;
+  private final int poolSize;
+  private final UnaryOperator<PgConnectOptions> optionsCustomizer;
+
+  /**
+   * @param poolSize          - maximum number of connections of a tenant
+   * @param optionsCustomizer - changes connect options of the tenant, e.g. the host
+   */
+  TenantPools(Vertx vertx, int poolSize, UnaryOperator<PgConnectOptions> optionsCustomizer) {
+    this.vertx = vertx;
+    this.poolSize = poolSize;
+    this.optionsCustomizer = optionsCustomizer;
+  }
+
+  Future<RowSet<Row>> execute(String tenantId, String sql, Tuple parameters) {
+    Promise<RowSet<Row>> promise = Promise.promise();
+    pools.computeIfAbsent(tenantId, this::createPool).preparedQuery(sql).execute(parameters, promise);
+    return promise.future();
+  }
+
+  void close() {
+    pools.values().forEach(PgPool::close);
+    pools.clear();
+  }
+
+  private PgPool createPool(String tenantId) {
+    PgConnectOptions options = optionsCustomizer.apply(
+      connectOptions(PostgresClient.getInstance(vertx, tenantId).getConnectionConfig()))
+      .setCachePreparedStatements(true);
+    return PgPool.pool(vertx, options, new PoolOptions().setMaxSize(poolSize));
+  }
+}
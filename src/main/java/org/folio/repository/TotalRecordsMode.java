@@ -0,0 +1,19 @@
+package org.folio.repository;
+
+/**
+ * How the total number of custom fields that match a query is calculated
+ */
+public enum TotalRecordsMode {
+  /**
+   * Counted by a separate query
+   */
+  EXACT,
+  /**
+   * Taken from the row estimate of the query plan, exact if the page isn't full
+   */
+  ESTIMATED,
+  /**
+   * Not calculated, totalRecords is {@link CustomFieldsConstants#TOTAL_RECORDS_NOT_CALCULATED}
+   */
+  NONE
+}
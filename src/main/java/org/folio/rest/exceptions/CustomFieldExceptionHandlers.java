@@ -7,8 +7,6 @@ import static org.folio.rest.exc.ExceptionPredicates.instanceOf;
 
 import javax.ws.rs.core.Response;
 
-import com.google.gson.Gson;
-
 import org.folio.common.pf.PartialFunction;
 import org.folio.rest.ResponseHelper;
 import org.folio.rest.jaxrs.model.Error;
@@ -43,7 +41,7 @@ public class CustomFieldExceptionHandlers {
   private static Response invalidValueToUnprocessable(Throwable t) {
     InvalidFieldValueException exc = (InvalidFieldValueException) t;
 
-    Error error = ValidationUtil.createError(new Gson().toJson(exc.getValue()), exc.getField(), exc.getMessage());
+    Error error = ValidationUtil.createError(ValidationUtil.toJson(exc.getValue()), exc.getField(), exc.getMessage());
 
     return ResponseHelper.statusWithJson(SC_UNPROCESSABLE_ENTITY, error);
   }
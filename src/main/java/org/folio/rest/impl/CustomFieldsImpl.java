@@ -5,16 +5,23 @@ import static org.folio.rest.jaxrs.resource.CustomFields.PostCustomFieldsRespons
 import static org.folio.rest.jaxrs.resource.CustomFields.PostCustomFieldsResponse.respond201WithApplicationJson;
 import static org.folio.rest.tools.utils.TenantTool.tenantId;
 
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Function;
 
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.Response.ResponseBuilder;
 
+import com.google.common.hash.Hashing;
 import io.vertx.core.AsyncResult;
 import io.vertx.core.Context;
 import io.vertx.core.Future;
 import io.vertx.core.Handler;
 import io.vertx.core.Vertx;
+import io.vertx.core.json.Json;
+import org.apache.commons.lang3.StringUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 
@@ -28,6 +35,7 @@ import org.folio.rest.jaxrs.model.CustomFieldOptionStatistic;
 import org.folio.rest.jaxrs.model.CustomFieldStatistic;
 import org.folio.rest.jaxrs.model.PutCustomFieldCollection;
 import org.folio.rest.jaxrs.resource.CustomFields;
+import org.folio.service.CustomFieldDefinitionCache;
 import org.folio.service.CustomFieldsService;
 import org.folio.spring.SpringContextUtil;
 import org.folio.validate.definition.DefinitionValidator;
@@ -43,6 +51,9 @@ public class CustomFieldsImpl implements CustomFields {
   @Autowired
   private DefinitionValidator definitionValidator;
 
+  @Autowired
+  private CustomFieldDefinitionCache definitionCache;
+
   public CustomFieldsImpl() {
     SpringContextUtil.autowireDependencies(this, Vertx.currentContext());
   }
@@ -76,21 +87,37 @@ public class CustomFieldsImpl implements CustomFields {
   @Override
   @Validate
   @HandleValidationErrors
-  public void getCustomFields(String query, int offset, int limit, String lang, Map<String, String> okapiHeaders,
+  public void getCustomFields(String query, int offset, int limit, String lang, String fields, Integer after,
+                              String totalRecords, String ifNoneMatch, Map<String, String> okapiHeaders,
                               Handler<AsyncResult<Response>> asyncResultHandler, Context vertxContext) {
-
-    Future<CustomFieldCollection> found =
-      customFieldsService.findByQuery(query, offset, limit, lang, tenantId(okapiHeaders));
-    respond(found, GetCustomFieldsResponse::respond200WithApplicationJson, asyncResultHandler, excHandler);
+    String tenantId = tenantId(okapiHeaders);
+    Future<Response> response = respondIfModified(tenantId, ifNoneMatch,
+      fromReplica -> customFieldsService.findByQuery(query, fields, after, totalRecords, offset, limit, lang,
+        fromReplica, tenantId)
+        .map(GetCustomFieldsResponse::respond200WithApplicationJson));
+    respond(response, Function.identity(), asyncResultHandler, excHandler);
   }
 
   @Override
   @Validate
   @HandleValidationErrors
-  public void getCustomFieldsById(String id, String lang, Map<String, String> okapiHeaders,
+  public void getCustomFieldsById(String id, String lang, String ifNoneMatch, Map<String, String> okapiHeaders,
                                   Handler<AsyncResult<Response>> asyncResultHandler, Context vertxContext) {
-    Future<CustomField> field = customFieldsService.findById(id, tenantId(okapiHeaders));
-    respond(field, GetCustomFieldsByIdResponse::respond200WithApplicationJson, asyncResultHandler, excHandler);
+    String tenantId = tenantId(okapiHeaders);
+    Future<Response> response = respondIfModified(tenantId, ifNoneMatch,
+      fromReplica -> customFieldsService.findById(id, tenantId, fromReplica)
+        .map(GetCustomFieldsByIdResponse::respond200WithApplicationJson));
+    respond(response, Function.identity(), asyncResultHandler, excHandler);
+  }
+
+  @Override
+  @Validate
+  @HandleValidationErrors
+  public void getCustomFieldsRefIdByRefId(String refId, Map<String, String> okapiHeaders,
+                                          Handler<AsyncResult<Response>> asyncResultHandler, Context vertxContext) {
+    Future<CustomField> customField = customFieldsService.findByRefId(refId, tenantId(okapiHeaders));
+    respond(customField, GetCustomFieldsRefIdByRefIdResponse::respond200WithApplicationJson, asyncResultHandler,
+      excHandler);
   }
 
   @Override
@@ -137,4 +164,50 @@ public class CustomFieldsImpl implements CustomFields {
       GetCustomFieldsOptionsStatsByIdAndOptIdResponse::respond200WithApplicationJson,
       asyncResultHandler, excHandler);
   }
+
+  /**
+   * Responds with 304 if the ETag from If-None-Match header matches the ETag of the tenant's custom fields,
+   * otherwise with the response of the given function. Both responses have ETag header.
+   * <p>
+   * Reads from the primary database have the current version of the custom fields as ETag. The version is taken
+   * before the custom fields are read, so the ETag is never newer than the returned data, and conditional requests
+   * that match it are answered without reading custom fields. Reads from the read replica can be older than
+   * the version, their ETag is a hash of the returned entity.
+   *
+   * @param okResponse - reads custom fields from the replica if its argument is true, from the primary otherwise
+   */
+  private Future<Response> respondIfModified(String tenantId, String ifNoneMatch,
+                                             Function<Boolean, Future<? extends Response>> okResponse) {
+    if (customFieldsService.readsFromReplica(tenantId)) {
+      return okResponse.apply(true).map(ok -> {
+        String etag = '"' + entityHash(ok.getEntity()) + '"';
+        ResponseBuilder response = matchesETag(ifNoneMatch, etag) ? Response.notModified() : Response.fromResponse(ok);
+        return response.header(HttpHeaders.ETAG, etag).build();
+      });
+    }
+    return definitionCache.getVersion(tenantId).compose(version -> {
+      String etag = '"' + version + '"';
+      if (matchesETag(ifNoneMatch, etag)) {
+        return Future.succeededFuture(Response.notModified().header(HttpHeaders.ETAG, etag).build());
+      }
+      return okResponse.apply(false).map(ok -> Response.fromResponse(ok).header(HttpHeaders.ETAG, etag).build());
+    });
+  }
+
+  private static String entityHash(Object entity) {
+    return Hashing.sha256().hashString(Json.encode(entity), StandardCharsets.UTF_8).toString();
+  }
+
+  private static boolean matchesETag(String ifNoneMatch, String etag) {
+    if (StringUtils.isBlank(ifNoneMatch)) {
+      return false;
+    }
+    for (String tag : ifNoneMatch.split(",")) {
+      String trimmed = StringUtils.removeStart(tag.trim(), "W/");
+      if ("*".equals(trimmed) || etag.equals(trimmed)) {
+        return true;
+      }
+    }
+    return false;
+  }
 }
@@ -5,18 +5,25 @@ import io.vertx.core.Context;
 import io.vertx.core.Future;
 import io.vertx.core.Handler;
 import io.vertx.core.Vertx;
+import org.springframework.beans.factory.annotation.Autowired;
 
 import org.folio.rest.resource.interfaces.PostDeployVerticle;
+import org.folio.service.CustomFieldsChangeListener;
 import org.folio.spring.ApplicationConfig;
 import org.folio.spring.SpringContextUtil;
 
 public class CustomFieldsPostDeployVerticle implements PostDeployVerticle {
 
+  @Autowired
+  private CustomFieldsChangeListener changeListener;
+
   @Override
   public void init(Vertx vertx, Context context, Handler<AsyncResult<Boolean>> handler) {
     vertx.executeBlocking(
       promise -> {
         SpringContextUtil.init(vertx, context, ApplicationConfig.class);
+        SpringContextUtil.autowireDependencies(this, context);
+        changeListener.start();
         promise.complete();
       },
       result -> {
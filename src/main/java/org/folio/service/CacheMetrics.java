@@ -0,0 +1,61 @@
+package org.folio.service;
+
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import com.google.common.cache.CacheStats;
+import io.vertx.core.Vertx;
+import io.vertx.core.logging.Logger;
+import io.vertx.core.logging.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Hit, miss and eviction counters of the caches of custom field definitions and of users.
+ * The counters are logged periodically if any of the caches was used since the previous log.
+ */
+@Component
+public class CacheMetrics {
+
+  private static final Logger LOG = LoggerFactory.getLogger(CacheMetrics.class);
+
+  @Autowired
+  private Vertx vertx;
+  @Autowired
+  private CustomFieldDefinitionCache definitionCache;
+  @Autowired
+  private UserService userService;
+  @Value("${custom.fields.cache.metrics.log.interval.seconds:300}")
+  private long logIntervalSeconds;
+
+  private long timerId = -1;
+  private long requestsAtLastLog;
+
+  @PostConstruct
+  public void start() {
+    if (logIntervalSeconds > 0) {
+      timerId = vertx.setPeriodic(TimeUnit.SECONDS.toMillis(logIntervalSeconds), id -> logStats());
+    }
+  }
+
+  @PreDestroy
+  public void stop() {
+    if (timerId != -1) {
+      vertx.cancelTimer(timerId);
+      timerId = -1;
+    }
+  }
+
+  private void logStats() {
+    CacheStats definitions = definitionCache.stats();
+    CacheStats users = userService.stats();
+    long requests = definitions.requestCount() + users.requestCount();
+    if (requests != requestsAtLastLog) {
+      requestsAtLastLog = requests;
+      LOG.info("Cache statistics: definitions={}, users={}", definitions, users);
+    }
+  }
+}
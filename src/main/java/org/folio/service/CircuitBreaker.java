@@ -0,0 +1,69 @@
+package org.folio.service;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Circuit breaker of requests to another module.
+ * <p>
+ * The circuit opens after the given number of consecutive failures and rejects requests while it is open.
+ * When the open period is over, one probe request is allowed (half-open state): its success closes
+ * the circuit, its failure opens the circuit for another period.
+ */
+public class CircuitBreaker {
+
+  public enum State {
+    CLOSED, OPEN, HALF_OPEN
+  }
+
+  private final int failureThreshold;
+  private final long openNanos;
+
+  private State state = State.CLOSED;
+  private int failures;
+  private long openedAt;
+
+  /**
+   * @param failureThreshold - number of consecutive failures that opens the circuit
+   * @param openMillis       - time after which an open circuit allows a probe request
+   */
+  public CircuitBreaker(int failureThreshold, long openMillis) {
+    this.failureThreshold = failureThreshold;
+    this.openNanos = TimeUnit.MILLISECONDS.toNanos(openMillis);
+  }
+
+  /**
+   * @return true if the request can be sent, the caller has to record its success or failure
+   */
+  public synchronized boolean allowRequest() {
+    switch (state) {
+      case CLOSED:
+        return true;
+      case OPEN:
+        if (System.nanoTime() - openedAt >= openNanos) {
+          state = State.HALF_OPEN;
+          return true;
+        }
+        return false;
+      case HALF_OPEN:
+      default:
+        return false;
+    }
+  }
+
+  public synchronized void recordSuccess() {
+    failures = 0;
+    state = State.CLOSED;
+  }
+
+  public synchronized void recordFailure() {
+    failures++;
+    if (state == State.HALF_OPEN || failures >= failureThreshold) {
+      state = State.OPEN;
+      openedAt = System.nanoTime();
+    }
+  }
+
+  public synchronized State getState() {
+    return state;
+  }
+}
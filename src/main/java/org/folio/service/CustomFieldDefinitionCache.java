@@ -0,0 +1,156 @@
+package org.folio.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import io.vertx.core.Future;
+import io.vertx.core.json.Json;
+import io.vertx.core.logging.Logger;
+import io.vertx.core.logging.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import org.folio.repository.CustomFieldsRepository;
+import org.folio.rest.jaxrs.model.CustomField;
+import org.folio.rest.persist.PostgresClient;
+
+/**
+ * Per-tenant in-memory cache of custom field definitions.
+ * <p>
+ * The whole definition set of a tenant is cached as one unmodifiable list, the same list instance is returned
+ * until the entry is invalidated or evicted. Write operations of {@link CustomFieldsService} invalidate the entry
+ * of the tenant they modify, writes of other module instances are reported by {@link CustomFieldsChangeListener}.
+ */
+@Component
+public class CustomFieldDefinitionCache {
+
+  private static final Logger LOG = LoggerFactory.getLogger(CustomFieldDefinitionCache.class);
+
+  private final Cache<String, List<CustomField>> cache;
+  /**
+   * Invalidation counter per tenant. A loaded definition set is put into the cache only if no invalidation
+   * of the tenant happened while it was being loaded, so a concurrent write can't be masked by a stale load.
+   */
+  private final ConcurrentMap<String, AtomicLong> generations = new ConcurrentHashMap<>();
+  /**
+   * Versions of cached definition sets, weak keys are compared by identity
+   */
+  private final Cache<List<CustomField>, String> versions = CacheBuilder.newBuilder()
+    .weakKeys()
+    .build();
+
+  @Autowired
+  private CustomFieldsRepository repository;
+
+  public CustomFieldDefinitionCache(@Value("${custom.fields.definition.cache.tenants.max:100}") long maxTenants,
+                                    @Value("${custom.fields.definition.cache.expire.seconds:300}") long expireSeconds) {
+    this.cache = CacheBuilder.newBuilder()
+      .maximumSize(maxTenants)
+      .expireAfterWrite(expireSeconds, TimeUnit.SECONDS)
+      .recordStats()
+      .build();
+  }
+
+  /**
+   * Returns all custom field definitions of the tenant, loading them from the database on cache miss.
+   *
+   * @param tenantId - tenant id
+   * @return unmodifiable list of definitions
+   */
+  public Future<List<CustomField>> getDefinitions(String tenantId) {
+    List<CustomField> cached = cache.getIfPresent(tenantId);
+    if (cached != null) {
+      return Future.succeededFuture(cached);
+    }
+    long generation = generation(tenantId).get();
+    LOG.debug("Loading custom field definitions of tenant {} into the cache.", tenantId);
+    return repository.findAll(tenantId)
+      .map(customFields -> {
+        List<CustomField> definitions = Collections.unmodifiableList(customFields);
+        if (generation(tenantId).get() == generation) {
+          cache.put(tenantId, definitions);
+        }
+        return definitions;
+      });
+  }
+
+  /**
+   * Returns version of the tenant's definitions, which changes whenever any of the definitions changes.
+   * The version is a hash of the definitions, so all module instances return the same version for the same
+   * definitions. It is computed once per cached definition set.
+   *
+   * @param tenantId - tenant id
+   * @return hex encoded version
+   */
+  public Future<String> getVersion(String tenantId) {
+    return getDefinitions(tenantId).map(definitions -> {
+      try {
+        return versions.get(definitions, () -> computeVersion(definitions));
+      } catch (ExecutionException e) {
+        throw new IllegalStateException(e.getCause());
+      }
+    });
+  }
+
+  /**
+   * Removes the cached definitions of the tenant.
+   *
+   * @param tenantId - tenant id
+   */
+  public void invalidate(String tenantId) {
+    generation(tenantId).incrementAndGet();
+    cache.invalidate(tenantId);
+  }
+
+  /**
+   * Removes the cached definitions of the tenant whose data is stored in the database schema.
+   *
+   * @param schema - database schema of a tenant
+   */
+  public void invalidateSchema(String schema) {
+    generations.keySet().stream()
+      .filter(tenantId -> schema.equals(PostgresClient.convertToPsqlStandard(tenantId)))
+      .forEach(this::invalidate);
+  }
+
+  /**
+   * Removes cached definitions of all tenants.
+   */
+  public void invalidateAll() {
+    generations.values().forEach(AtomicLong::incrementAndGet);
+    cache.invalidateAll();
+  }
+
+  /**
+   * @return hit/miss/eviction counters of the cache
+   */
+  public CacheStats stats() {
+    return cache.stats();
+  }
+
+  private static String computeVersion(List<CustomField> definitions) {
+    List<CustomField> sorted = new ArrayList<>(definitions);
+    sorted.sort(Comparator.comparing(CustomField::getId, Comparator.nullsFirst(Comparator.naturalOrder())));
+    Hasher hasher = Hashing.sha256().newHasher();
+    sorted.forEach(definition -> hasher.putString(Json.encode(definition), StandardCharsets.UTF_8));
+    return hasher.hash().toString();
+  }
+
+  private AtomicLong generation(String tenantId) {
+    return generations.computeIfAbsent(tenantId, key -> new AtomicLong());
+  }
+}
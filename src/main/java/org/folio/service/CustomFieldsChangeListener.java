@@ -0,0 +1,95 @@
+package org.folio.service;
+
+import static org.folio.repository.ConnectOptionsUtil.connectOptions;
+
+import javax.annotation.PreDestroy;
+
+import io.vertx.core.Vertx;
+import io.vertx.core.logging.Logger;
+import io.vertx.core.logging.LoggerFactory;
+import io.vertx.pgclient.pubsub.PgSubscriber;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import org.folio.rest.persist.PostgresClient;
+
+/**
+ * Listens to notifications about changes of custom fields, which are sent by the trigger of
+ * notify-custom-fields-changed.sql with the schema of the changed table as payload,
+ * and evicts cached definitions of the tenant. This keeps the caches of all module instances coherent.
+ * <p>
+ * Notifications can be lost while the connection is down, so all cached definitions are evicted
+ * every time the channel is (re)subscribed.
+ */
+@Component
+public class CustomFieldsChangeListener {
+
+  public static final String CHANNEL = "custom_fields_changed";
+
+  private static final Logger LOG = LoggerFactory.getLogger(CustomFieldsChangeListener.class);
+
+  @Autowired
+  private Vertx vertx;
+  @Autowired
+  private CustomFieldDefinitionCache definitionCache;
+  @Value("${custom.fields.definition.cache.notify.enabled:true}")
+  private boolean enabled;
+  @Value("${custom.fields.definition.cache.notify.reconnect.seconds:5}")
+  private long reconnectSeconds;
+
+  private PgSubscriber subscriber;
+
+  /**
+   * Connects to the database and starts listening, does nothing if the listener is disabled or already started
+   */
+  public synchronized void start() {
+    if (!enabled || subscriber != null) {
+      return;
+    }
+    subscriber = PgSubscriber.subscriber(vertx, connectOptions(PostgresClient.getInstance(vertx).getConnectionConfig()))
+      .reconnectPolicy(retries -> reconnectSeconds * 1000);
+    subscriber.channel(CHANNEL)
+      .subscribeHandler(v -> {
+        LOG.info("Listening to custom field changes, cached definitions are evicted.");
+        definitionCache.invalidateAll();
+      })
+      .handler(this::onChange);
+    connect(subscriber);
+  }
+
+  /**
+   * Stops listening
+   */
+  @PreDestroy
+  public synchronized void stop() {
+    if (subscriber != null) {
+      subscriber.close();
+      subscriber = null;
+    }
+  }
+
+  /**
+   * Reconnect policy of the subscriber applies only to a lost connection, so failed attempts to connect
+   * are repeated here
+   */
+  private void connect(PgSubscriber pgSubscriber) {
+    pgSubscriber.connect(connection -> {
+      if (connection.failed()) {
+        LOG.warn("Failed to listen to custom field changes: {}", connection.cause().getMessage());
+        vertx.setTimer(reconnectSeconds * 1000, timerId -> {
+          synchronized (this) {
+            if (subscriber == pgSubscriber) {
+              connect(pgSubscriber);
+            }
+          }
+        });
+      }
+    });
+  }
+
+  private void onChange(String schema) {
+    LOG.debug("Custom fields of schema {} changed.", schema);
+    definitionCache.invalidateSchema(schema);
+  }
+}
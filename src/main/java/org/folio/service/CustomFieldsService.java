@@ -2,6 +2,8 @@ package org.folio.service;
 
 import java.util.List;
 
+import javax.annotation.Nullable;
+
 import io.vertx.core.Future;
 
 import org.folio.common.OkapiParams;
@@ -30,23 +32,49 @@ public interface CustomFieldsService {
   Future<Void> update(String id, CustomField customField, OkapiParams params);
 
   /**
-   * Fetches custom field definition with given id.
+   * Fetches custom field definition with given id from the read replica or, if fromReplica is false,
+   * from the primary database.
    * If definition with given id doesn't exist then returns failed Future with NotFoundException as a cause.
    *
-   * @param id       - id of custom field to fetch
+   * @param id          - id of custom field to fetch
+   * @param tenantId    - tenant id
+   * @param fromReplica - result of {@link #readsFromReplica(String)} for the request
+   */
+  Future<CustomField> findById(String id, String tenantId, boolean fromReplica);
+
+  /**
+   * Fetches custom field definition with given reference id.
+   * If definition with given reference id doesn't exist then returns failed Future with NotFoundException as a cause.
+   *
+   * @param refId    - reference id of custom field to fetch
    * @param tenantId - tenant id
    */
-  Future<CustomField> findById(String id, String tenantId);
+  Future<CustomField> findByRefId(String refId, String tenantId);
+
+  /**
+   * Fetches custom fields collection that match specified CQL query from the read replica or, if fromReplica
+   * is false, from the primary database.
+   *
+   * @param query        - CQL query
+   * @param fields       - comma separated names of the properties of custom fields to return, all properties if null
+   * @param after        - order of the last custom field of the previous page, or null
+   * @param totalRecords - how totalRecords is calculated: exact, estimated or none
+   * @param offset       - offset
+   * @param limit        - limit
+   * @param fromReplica  - result of {@link #readsFromReplica(String)} for the request
+   * @param tenantId     - tenant id
+   */
+  Future<CustomFieldCollection> findByQuery(String query, @Nullable String fields, @Nullable Integer after,
+                                            String totalRecords, int offset, int limit, String lang,
+                                            boolean fromReplica, String tenantId);
 
   /**
-   * Fetches custom fields collection that match specified CQL query.
+   * Tells whether the reads of the tenant can go to the read replica, which lags behind the primary database.
+   * It is false for a while after a change of custom fields of the tenant made by this module instance.
    *
-   * @param query    - CQL query
-   * @param offset   - offset
-   * @param limit    - limit
    * @param tenantId - tenant id
    */
-  Future<CustomFieldCollection> findByQuery(String query, int offset, int limit, String lang, String tenantId);
+  boolean readsFromReplica(String tenantId);
 
   /**
    * Deletes custom field with given id.
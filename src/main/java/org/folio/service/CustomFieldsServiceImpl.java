@@ -16,9 +16,9 @@ import static org.folio.service.CustomFieldUtils.isTextBoxCustomFieldType;
 import java.io.IOException;
 import java.text.Normalizer;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -30,10 +30,13 @@ import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import javax.annotation.Nullable;
+import javax.ws.rs.BadRequestException;
+import javax.ws.rs.NotFoundException;
 
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Sets;
 import io.vertx.core.AsyncResult;
-import io.vertx.core.CompositeFuture;
 import io.vertx.core.Future;
 import io.vertx.core.Vertx;
 import org.apache.commons.collections4.CollectionUtils;
@@ -50,7 +53,9 @@ import org.z3950.zing.cql.ModifierSet;
 
 import org.folio.common.OkapiParams;
 import org.folio.model.RecordUpdate;
+import org.folio.model.User;
 import org.folio.repository.CustomFieldsRepository;
+import org.folio.repository.TotalRecordsMode;
 import org.folio.rest.jaxrs.model.CustomField;
 import org.folio.rest.jaxrs.model.CustomFieldCollection;
 import org.folio.rest.jaxrs.model.CustomFieldOptionStatistic;
@@ -79,97 +84,181 @@ public class CustomFieldsServiceImpl implements CustomFieldsService {
   private static final String MISSED_OPTION_MESSAGE = "Option with id '%s' not found in custom field '%s'";
   private static final String FORMAT_CHANGING_MESSAGE =
     "The format of the custom field can not be changed: newFormat = %s, oldFormat = %s";
+  private static final String NOT_FOUND_BY_REF_ID_MESSAGE = "CustomField not found by refId: %s";
+  private static final String AFTER_WITH_SORT_MESSAGE = "Query with 'after' parameter can't have sortby, "
+    + "custom fields are sorted by order";
+  private static final String AFTER_WITH_OFFSET_MESSAGE = "Query with 'after' parameter can't have offset, "
+    + "the page starts after the given order";
+  private static final String UNKNOWN_PROPERTIES_MESSAGE = "Unknown properties of custom field in 'fields': %s";
+  private static final Set<String> CUSTOM_FIELD_PROPERTIES =
+    ImmutableSet.copyOf(CustomField.class.getAnnotation(JsonPropertyOrder.class).value());
 
   @Autowired
   private CustomFieldsRepository repository;
   @Autowired
   private UserService userService;
   @Autowired
+  private UsernameBackfill usernameBackfill;
+  @Autowired
   private RecordService recordService;
   @Autowired
   private Vertx vertx;
+  @Autowired
+  private CustomFieldDefinitionCache definitionCache;
 
   @Override
   public Future<CustomField> save(CustomField customField, OkapiParams params) {
-    return repository.maxOrder(params.getTenant())
-      .compose(maxOrder -> {
-        customField.setOrder(maxOrder + 1);
-        return save(customField, params, null);
-      });
+    customField.setOrder(null);
+    Future<CustomField> saved = save(customField, params, null);
+    return invalidatingDefinitions(saved, params.getTenant());
   }
 
   @Override
   public Future<Void> update(String id, CustomField customField, OkapiParams params) {
-    return findById(id, params.getTenant())
+    Future<Void> updated = findByIdOnPrimary(id, params.getTenant())
       .compose(oldCustomField -> {
         customField.setId(oldCustomField.getId());
         customField.setOrder(oldCustomField.getOrder());
         return update(customField, oldCustomField, params, null);
       });
+    return invalidatingDefinitions(updated, params.getTenant());
   }
 
   @Override
-  public Future<CustomField> findById(String id, String tenantId) {
+  public Future<CustomField> findById(String id, String tenantId, boolean fromReplica) {
+    return repository.findById(id, tenantId, fromReplica)
+      .map(customField -> customField.orElseThrow(() -> ServiceExceptions.notFound(CustomField.class, id)));
+  }
+
+  /**
+   * Reads the custom field from the read replica if it is configured
+   */
+  private Future<CustomField> findByIdFromReplica(String id, String tenantId) {
     return repository.findById(id, tenantId)
       .map(customField -> customField.orElseThrow(() -> ServiceExceptions.notFound(CustomField.class, id)));
   }
 
+  private Future<CustomField> findByIdOnPrimary(String id, String tenantId) {
+    return repository.findByIdOnPrimary(id, tenantId)
+      .map(customField -> customField.orElseThrow(() -> ServiceExceptions.notFound(CustomField.class, id)));
+  }
+
+  @Override
+  public Future<CustomField> findByRefId(String refId, String tenantId) {
+    return repository.findByRefId(refId, tenantId)
+      .map(customField -> customField.orElseThrow(
+        () -> new NotFoundException(format(NOT_FOUND_BY_REF_ID_MESSAGE, refId))));
+  }
+
+  @Override
+  public Future<CustomFieldCollection> findByQuery(String query, @Nullable String fields, @Nullable Integer after,
+                                                   String totalRecords, int offset, int limit, String lang,
+                                                   boolean fromReplica, String tenantId) {
+    List<String> fieldNames;
+    try {
+      fieldNames = parseFields(fields);
+    } catch (BadRequestException e) {
+      return failedFuture(e);
+    }
+    TotalRecordsMode totalRecordsMode = totalRecords == null
+      ? TotalRecordsMode.EXACT
+      : TotalRecordsMode.valueOf(totalRecords.toUpperCase());
+    if (after == null) {
+      return repository.findByQuery(withSortByOrder(query), fieldNames, null, totalRecordsMode, offset, limit,
+        fromReplica, tenantId);
+    }
+    if (offset > 0) {
+      return failedFuture(new BadRequestException(AFTER_WITH_OFFSET_MESSAGE));
+    }
+    String cqlQuery = !StringUtils.isBlank(query) ? query : ALL_RECORDS_QUERY;
+    if (findSortNode(cqlQuery) != null) {
+      return failedFuture(new BadRequestException(AFTER_WITH_SORT_MESSAGE));
+    }
+    return repository.findByQuery(cqlQuery, fieldNames, after, totalRecordsMode, offset, limit, fromReplica,
+      tenantId);
+  }
+
   @Override
-  public Future<CustomFieldCollection> findByQuery(String query, int offset, int limit, String lang, String tenantId) {
-    return repository.findByQuery(withSortByOrder(query), offset, limit, tenantId);
+  public boolean readsFromReplica(String tenantId) {
+    return repository.readsFromReplica(tenantId);
   }
 
   @Override
   public Future<Void> delete(String id, String tenantId) {
-    Future<CustomField> cf = findById(id, tenantId);
+    Future<CustomField> cf = findByIdOnPrimary(id, tenantId);
 
-    return cf
+    Future<Void> deleted = cf
       .compose(field -> recordService.deleteAllValues(field, tenantId))
-      .compose(v -> repository.delete(id, tenantId))
-      .compose(deleted -> failIfNotFound(deleted, id))
-      .compose(v -> updateCustomFieldsOrder(tenantId));
+      .compose(v -> executeInTransactionWithVertxFuture(tenantId, vertx, (postgresClient, connection) ->
+        repository.lockLastOrder(tenantId, connection)
+          .compose(locked -> repository.delete(id, tenantId, connection))
+          .compose(found -> failIfNotFound(found, id))
+          .compose(aVoid -> repository.renumberOrder(tenantId, connection))
+      ));
+    return invalidatingDefinitions(deleted, tenantId);
   }
 
   @Override
   public Future<List<CustomField>> replaceAll(List<CustomField> customFields, OkapiParams params) {
-    return repository.findByQuery(null, 0, Integer.MAX_VALUE, params.getTenant())
+    Future<List<CustomField>> replaced = repository.findAll(params.getTenant())
       .compose(existingFields -> {
         setOrder(customFields);
         setIdIfEmpty(customFields);
         Map<String, CustomField> newFieldsMap = createMapById(customFields);
-        Map<String, CustomField> existingFieldsMap = createMapById(existingFields.getCustomFields());
+        Map<String, CustomField> existingFieldsMap = createMapById(existingFields);
 
         Set<String> fieldsToRemove = Sets.difference(existingFieldsMap.keySet(), newFieldsMap.keySet());
         Set<String> fieldsToUpdate = Sets.intersection(existingFieldsMap.keySet(), newFieldsMap.keySet());
         Set<String> fieldsToInsert = Sets.difference(newFieldsMap.keySet(), existingFieldsMap.keySet());
 
-        return executeInTransactionWithVertxFuture(params.getTenant(), vertx, (postgresClient, connection) ->
-          executeForEach(fieldsToRemove, id -> repository.delete(id, params.getTenant(), connection))
-            .compose(deleted ->
-              executeForEach(fieldsToUpdate,
-                id -> update(newFieldsMap.get(id), existingFieldsMap.get(id), params, connection)))
-            .compose(updateResult ->
-              executeForEach(fieldsToInsert, id -> save(newFieldsMap.get(id), params, connection)))
-        ).compose(o -> {
-            List<CustomField> deletedFields = fieldsToRemove.stream()
-              .map(existingFieldsMap::get)
-              .collect(Collectors.toList());
-            return executeForEach(deletedFields, field -> recordService.deleteAllValues(field, params.getTenant()));
-          }
-        )
+        List<CustomField> deletedFields = fieldsToRemove.stream()
+          .map(existingFieldsMap::get)
+          .collect(Collectors.toList());
+        List<CustomField> updatedFields = fieldsToUpdate.stream()
+          .map(newFieldsMap::get)
+          .collect(Collectors.toList());
+        List<CustomField> insertedFields = fieldsToInsert.stream()
+          .map(newFieldsMap::get)
+          .collect(Collectors.toList());
+        List<String> refIdBaseNames = insertedFields.stream()
+          .map(this::prepareSave)
+          .collect(Collectors.toList());
+        List<RecordUpdate> recordUpdates = new ArrayList<>();
+
+        return executeForEach(updatedFields, field -> prepareUpdate(field, existingFieldsMap.get(field.getId()))
+          .map(recordUpdate -> {
+            if (isRequiredRecordUpdate(recordUpdate)) {
+              recordUpdates.add(recordUpdate);
+            }
+            return null;
+          }))
+          .compose(o -> populateCreatorAndUpdater(insertedFields, updatedFields, params))
+          .compose(o -> executeInTransactionWithVertxFuture(params.getTenant(), vertx, (postgresClient, connection) ->
+            repository.lockLastOrder(params.getTenant(), connection)
+              .compose(locked -> repository.delete(new ArrayList<>(fieldsToRemove), params.getTenant(), connection))
+              .compose(deleted -> repository.update(updatedFields, params.getTenant(), connection))
+              .compose(updateResult ->
+                repository.saveWithRefIds(insertedFields, refIdBaseNames, params.getTenant(), connection))
+              .compose(insertResult -> repository.resetLastOrder(params.getTenant(), connection))
+          ))
+          .compose(o -> executeForEach(recordUpdates,
+            recordUpdate -> recordService.deleteMissedOptionValues(recordUpdate, params.getTenant())))
+          .compose(o -> executeForEach(deletedFields,
+            field -> recordService.deleteAllValues(field, params.getTenant())))
           .map(customFields);
       });
+    return invalidatingDefinitions(replaced, params.getTenant());
   }
 
   @Override
   public Future<CustomFieldStatistic> retrieveStatistic(String id, String tenantId) {
-    return findById(id, tenantId)
+    return findByIdFromReplica(id, tenantId)
       .compose(field -> recordService.retrieveStatistic(field, tenantId));
   }
 
   @Override
   public Future<CustomFieldOptionStatistic> retrieveOptionStatistic(String id, String optId, String tenantId) {
-    return findById(id, tenantId)
+    return findByIdFromReplica(id, tenantId)
       .compose(field -> {
           Validation validation = Validation.instance()
             .addTest(field, isSelectable())
@@ -216,43 +305,56 @@ public class CustomFieldsServiceImpl implements CustomFieldsService {
 
   private Future<CustomField> save(CustomField customField, OkapiParams params,
                                    @Nullable AsyncResult<SQLConnection> connection) {
-    final String unAccentName = unAccentName(customField.getName());
+    final String unAccentName = prepareSave(customField);
+    return populateCreator(customField, params)
+      .compose(o -> repository.saveWithRefId(customField, unAccentName, params.getTenant(), connection));
+  }
+
+  /**
+   * Sets defaults of a new custom field
+   *
+   * @return base name of the reference id of the custom field
+   */
+  private String prepareSave(CustomField customField) {
     setDefaultFormat(customField);
     if (isSelectableCustomFieldType(customField)) {
       sortOptions(customField);
       generateOptionIds(customField);
     }
-    return populateCreator(customField, params)
-      .compose(o -> repository.maxRefId(unAccentName, params.getTenant(), connection))
-      .compose(maxRefId -> {
-        customField.setRefId(getCustomFieldRefId(unAccentName, maxRefId));
-        return repository.save(customField, params.getTenant(), connection);
-      });
+    return unAccentName(customField.getName());
   }
 
   private Future<Void> update(CustomField customField, CustomField oldCustomField, OkapiParams params,
                               @Nullable AsyncResult<SQLConnection> connection) {
+    return prepareUpdate(customField, oldCustomField)
+      .compose(recordUpdate -> populateUpdater(customField, params)
+        .compose(o -> repository.update(customField, params.getTenant(), connection))
+        .compose(found -> failIfNotFound(found, customField.getId()))
+        .compose(aVoid -> {
+          if (isRequiredRecordUpdate(recordUpdate)) {
+            return recordService.deleteMissedOptionValues(recordUpdate, params.getTenant());
+          } else {
+            return Future.succeededFuture(aVoid);
+          }
+        }));
+  }
+
+  /**
+   * Copies unchangeable attributes of the old custom field and validates changes of the definition
+   *
+   * @return changes of record values required by the update
+   */
+  private Future<RecordUpdate> prepareUpdate(CustomField customField, CustomField oldCustomField) {
     customField.setRefId(oldCustomField.getRefId());
     setDefaultFormat(customField);
 
     RecordUpdate recordUpdate = createRecordUpdate(customField, oldCustomField);
 
-    Future<Void> validated = Validation.instance()
+    return Validation.instance()
       .addTest(customField.getType(), typeNotChanged(oldCustomField.getType()))
       .addTest(customField, formatNotChanged(oldCustomField))
-      .validate();
-
-    return validated
-      .compose(o -> populateUpdater(customField, params))
-      .compose(o -> repository.update(customField, params.getTenant(), connection))
-      .compose(found -> failIfNotFound(found, customField.getId()))
-      .compose(aVoid -> {
-        if (isRequiredRecordUpdate(recordUpdate)) {
-          return recordService.deleteMissedOptionValues(recordUpdate, params.getTenant());
-        } else {
-          return Future.succeededFuture(aVoid);
-        }
-      });
+      .validate()
+      .map(recordUpdate);
   }
 
   private void setDefaultFormat(CustomField customField) {
@@ -335,28 +437,20 @@ public class CustomFieldsServiceImpl implements CustomFieldsService {
     return resultFuture.map(o -> null);
   }
 
-  private Future<Void> updateCustomFieldsOrder(String tenantId) {
-    final Future<Void> result = succeededFuture();
-    return result
-      .compose(v -> repository.findByQuery(null, 0, Integer.MAX_VALUE, tenantId)
-        .map(this::updateCustomFieldsOrder)
-        .compose(customFields -> updateCustomFields(customFields, tenantId)));
-  }
-
-  private Future<Void> updateCustomFields(List<CustomField> customFields, String tenantId) {
-    return CompositeFuture.all(customFields
-      .stream()
-      .map(customField -> repository.update(customField, tenantId))
-      .collect(Collectors.toList())
-    ).map(f -> null);
-  }
-
-  private List<CustomField> updateCustomFieldsOrder(CustomFieldCollection customFieldsCollection) {
-    final List<CustomField> customFields = sortByOrder(customFieldsCollection).getCustomFields();
-    for (int i = 0; i < customFields.size(); i++) {
-      customFields.get(i).setOrder(i + 1);
-    }
-    return customFields;
+  /**
+   * Invalidates cached definitions of the tenant once the write operation is completed, either successfully or not,
+   * because a failed operation might still have changed some of the definitions
+   */
+  private <T> Future<T> invalidatingDefinitions(Future<T> writeResult, String tenantId) {
+    return writeResult.compose(
+      result -> {
+        definitionCache.invalidate(tenantId);
+        return succeededFuture(result);
+      },
+      cause -> {
+        definitionCache.invalidate(tenantId);
+        return failedFuture(cause);
+      });
   }
 
   private Future<Void> failIfNotFound(boolean found, String entityId) {
@@ -364,7 +458,7 @@ public class CustomFieldsServiceImpl implements CustomFieldsService {
   }
 
   private Future<Void> populateCreator(CustomField entity, OkapiParams params) {
-    return userService.getUserInfo(params.getHeaders()).map(user -> {
+    return lookUpUser(params).map(user -> {
       if (entity.getMetadata() != null) {
         entity.getMetadata().setCreatedByUsername(user.getUsername());
       }
@@ -373,7 +467,7 @@ public class CustomFieldsServiceImpl implements CustomFieldsService {
   }
 
   private Future<Void> populateUpdater(CustomField entity, OkapiParams params) {
-    return userService.getUserInfo(params.getHeaders()).map(user -> {
+    return lookUpUser(params).map(user -> {
       if (entity.getMetadata() != null) {
         entity.getMetadata().setUpdatedByUsername(user.getUsername());
       }
@@ -381,6 +475,31 @@ public class CustomFieldsServiceImpl implements CustomFieldsService {
     });
   }
 
+  private Future<Void> populateCreatorAndUpdater(List<CustomField> createdEntities, List<CustomField> updatedEntities,
+                                                 OkapiParams params) {
+    if (createdEntities.isEmpty() && updatedEntities.isEmpty()) {
+      return succeededFuture();
+    }
+    return lookUpUser(params).map(user -> {
+      createdEntities.stream()
+        .filter(entity -> entity.getMetadata() != null)
+        .forEach(entity -> entity.getMetadata().setCreatedByUsername(user.getUsername()));
+      updatedEntities.stream()
+        .filter(entity -> entity.getMetadata() != null)
+        .forEach(entity -> entity.getMetadata().setUpdatedByUsername(user.getUsername()));
+      return null;
+    });
+  }
+
+  /**
+   * Looks up the user of the request. Custom fields changed while mod-users was unavailable are saved with
+   * the user id only, the username is set on the next change of custom fields by the same user.
+   */
+  private Future<User> lookUpUser(OkapiParams params) {
+    return userService.getUserInfo(params.getHeaders())
+      .compose(user -> usernameBackfill.update(user, params.getTenant()).map(v -> user));
+  }
+
   private String unAccentName(String customFieldName) {
     final String capitalizedString = WordUtils.capitalizeFully(customFieldName);
     final String splitString = Normalizer.normalize(capitalizedString, Normalizer.Form.NFD)
@@ -391,41 +510,65 @@ public class CustomFieldsServiceImpl implements CustomFieldsService {
     return StringUtils.uncapitalize(splitString);
   }
 
-  private String getCustomFieldRefId(String id, Integer maxRefId) {
-    return id + (maxRefId < 1 ? "" : "_" + (maxRefId + 1));
+  /**
+   * Splits comma separated names of the properties of custom field
+   *
+   * @return names of the properties, or null if all properties are requested
+   * @throws BadRequestException if a name is not a property of custom field
+   */
+  private List<String> parseFields(String fields) {
+    if (StringUtils.isBlank(fields)) {
+      return null;
+    }
+    List<String> fieldNames = Arrays.stream(fields.split(","))
+      .map(String::trim)
+      .filter(StringUtils::isNotEmpty)
+      .distinct()
+      .collect(Collectors.toList());
+    List<String> unknownNames = fieldNames.stream()
+      .filter(name -> !CUSTOM_FIELD_PROPERTIES.contains(name))
+      .collect(Collectors.toList());
+    if (!unknownNames.isEmpty()) {
+      throw new BadRequestException(format(UNKNOWN_PROPERTIES_MESSAGE, String.join(", ", unknownNames)));
+    }
+    return fieldNames;
   }
 
   /**
-   * Adds "sortby order" part to cqlQuery, if query already has "sortby" part, then "order"
-   * is added as second sort attribute
+   * If query has "sortby" part, then "order" is added as second sort attribute.
+   * A query without "sortby" part is returned as is, the repository sorts its results by the order column.
    *
    * @param cqlQuery initial query
-   * @return query with "sortby order"
+   * @return query sorted by order
    */
   private String withSortByOrder(String cqlQuery) {
     try {
       final CQLParser parser = new CQLParser(CQLParser.V1POINT2);
       CQLNode node = parser.parse(!StringUtils.isBlank(cqlQuery) ? cqlQuery : ALL_RECORDS_QUERY);
-      SortVisitor visitor = new SortVisitor();
-      node.traverse(visitor);
-      CQLSortNode foundSortNode = visitor.getCqlSortNode();
+      CQLSortNode foundSortNode = findSortNode(node);
       if (foundSortNode != null) {
         foundSortNode.addSortIndex(new ModifierSet(ORDER_ATTRIBUTE));
-        return node.toCQL();
-      } else {
-        CQLSortNode newSortNode = new CQLSortNode(node);
-        newSortNode.addSortIndex(new ModifierSet(ORDER_ATTRIBUTE));
-        return newSortNode.toCQL();
       }
+      return node.toCQL();
+    } catch (CQLParseException | IOException e) {
+      throw new IllegalArgumentException("Unsupported Query Format : Search query is in an unsupported format: " + cqlQuery,
+        e);
+    }
+  }
+
+  private CQLSortNode findSortNode(String cqlQuery) {
+    try {
+      return findSortNode(new CQLParser(CQLParser.V1POINT2).parse(cqlQuery));
     } catch (CQLParseException | IOException e) {
       throw new IllegalArgumentException("Unsupported Query Format : Search query is in an unsupported format: " + cqlQuery,
         e);
     }
   }
 
-  private CustomFieldCollection sortByOrder(CustomFieldCollection collection) {
-    collection.getCustomFields().sort(Comparator.comparingInt(CustomField::getOrder));
-    return collection;
+  private CQLSortNode findSortNode(CQLNode node) {
+    SortVisitor visitor = new SortVisitor();
+    node.traverse(visitor);
+    return visitor.getCqlSortNode();
   }
 
   private void generateOptionIds(CustomField field) {
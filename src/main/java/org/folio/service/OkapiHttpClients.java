@@ -0,0 +1,65 @@
+package org.folio.service;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.annotation.PreDestroy;
+
+import io.vertx.core.Vertx;
+import io.vertx.core.http.HttpClient;
+import io.vertx.core.http.HttpClientOptions;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Long-lived HTTP clients of other modules, one per Okapi URL. Each client keeps a pool of keep-alive
+ * connections, so requests don't pay for connection setup and bursts of requests don't churn sockets.
+ */
+@Component
+public class OkapiHttpClients {
+
+  private final ConcurrentMap<String, HttpClient> clients = new ConcurrentHashMap<>();
+  private final Vertx vertx;
+  private final HttpClientOptions options;
+  private final long requestTimeoutMillis;
+
+  @Autowired
+  public OkapiHttpClients(Vertx vertx,
+                          @Value("${custom.fields.http.client.pool.size:10}") int poolSize,
+                          @Value("${custom.fields.http.client.connect.timeout.ms:2000}") int connectTimeoutMillis,
+                          @Value("${custom.fields.http.client.request.timeout.ms:5000}") long requestTimeoutMillis,
+                          @Value("${custom.fields.http.client.idle.timeout.seconds:60}") int idleTimeoutSeconds,
+                          @Value("${custom.fields.http.client.pipelining:false}") boolean pipelining) {
+    this.vertx = vertx;
+    this.requestTimeoutMillis = requestTimeoutMillis;
+    this.options = new HttpClientOptions()
+      .setKeepAlive(true)
+      .setMaxPoolSize(poolSize)
+      .setConnectTimeout(connectTimeoutMillis)
+      .setIdleTimeout(idleTimeoutSeconds)
+      .setPipelining(pipelining);
+  }
+
+  /**
+   * Returns the client of the Okapi URL, requests of the client have to use absolute URLs
+   *
+   * @param okapiUrl - value of X-Okapi-Url header
+   */
+  public HttpClient get(String okapiUrl) {
+    return clients.computeIfAbsent(okapiUrl, url -> vertx.createHttpClient(options));
+  }
+
+  /**
+   * @return time after which a request fails if no response data is received
+   */
+  public long getRequestTimeoutMillis() {
+    return requestTimeoutMillis;
+  }
+
+  @PreDestroy
+  public void close() {
+    clients.values().forEach(HttpClient::close);
+    clients.clear();
+  }
+}
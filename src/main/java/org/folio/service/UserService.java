@@ -4,38 +4,98 @@ import static org.folio.rest.tools.utils.TenantTool.calculateTenantId;
 
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
 
 import javax.ws.rs.NotAuthorizedException;
 import javax.ws.rs.NotFoundException;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
 import io.vertx.core.Future;
 import io.vertx.core.Promise;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpClientRequest;
 import org.apache.commons.collections4.map.CaseInsensitiveMap;
+import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import org.folio.model.User;
 import org.folio.okapi.common.XOkapiHeaders;
-import org.folio.rest.tools.client.HttpClientFactory;
 import org.folio.rest.tools.client.Response;
-import org.folio.rest.tools.client.interfaces.HttpClientInterface;
 import org.folio.util.TokenUtils;
 import org.folio.util.UserInfo;
 
+/**
+ * Looks up the user of the current request in mod-users. Found users are cached per tenant and user id
+ * for a configured period, so consecutive changes of custom fields by the same user make one request,
+ * and concurrent lookups of a user who isn't cached wait for the same request.
+ * Requests are sent with the pooled keep-alive clients of {@link OkapiHttpClients}.
+ */
 @Component
 public class UserService {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(UserService.class);
 
   private static final String USERS_ENDPOINT_TEMPLATE = "/users/%s";
+  private static final String OKAPI_HEADER_PREFIX = "x-okapi-";
 
   private static final String AUTHORIZATION_FAILURE_MESSAGE = "Authorization failure";
   private static final String USER_NOT_FOUND_MESSAGE = "User not found";
   private static final String CANNOT_GET_USER_DATA_MESSAGE = "Cannot get user data: %s";
+  private static final String CIRCUIT_OPEN_MESSAGE = "Requests to mod-users are suspended after repeated failures";
+  private static final String DEGRADED_MESSAGE = "User %s is used without username: %s";
+
+  /**
+   * Found users by tenant id and user id
+   */
+  private final Cache<String, User> users;
+  /**
+   * Lookups in progress by tenant id and user id, concurrent lookups of the same user share one request
+   */
+  private final ConcurrentMap<String, Future<User>> lookups = new ConcurrentHashMap<>();
+  /**
+   * Circuit breakers by Okapi URL, so that an unavailable mod-users of one Okapi doesn't suspend
+   * the lookups sent to other Okapi instances
+   */
+  private final ConcurrentMap<String, CircuitBreaker> circuitBreakers = new ConcurrentHashMap<>();
+  private final int breakerFailures;
+  private final long breakerOpenMillis;
+
+  @Autowired
+  private OkapiHttpClients httpClients;
+  @Value("${custom.fields.user.from.token:false}")
+  private boolean userFromToken;
+  @Value("${custom.fields.user.degraded.mode.enabled:false}")
+  private boolean degradedMode;
+
+  public UserService(@Value("${custom.fields.user.cache.size.max:1000}") long maxUsers,
+                     @Value("${custom.fields.user.cache.expire.seconds:60}") long expireSeconds,
+                     @Value("${custom.fields.user.circuit.breaker.failures:5}") int breakerFailures,
+                     @Value("${custom.fields.user.circuit.breaker.open.seconds:30}") long breakerOpenSeconds) {
+    this.breakerFailures = breakerFailures;
+    this.breakerOpenMillis = TimeUnit.SECONDS.toMillis(breakerOpenSeconds);
+    this.users = CacheBuilder.newBuilder()
+      .maximumSize(maxUsers)
+      .expireAfterWrite(expireSeconds, TimeUnit.SECONDS)
+      .recordStats()
+      .build();
+  }
 
   /**
    * Returns the user information for the userid specified in the x-okapi-token header.
+   * If custom.fields.user.from.token is enabled, the username is taken from the token, the user is fetched
+   * from mod-users only if the token has no username.
+   * If mod-users doesn't respond in time, fails or the circuit breaker is open, and degraded mode is enabled,
+   * the user has id only and is marked as degraded, its username has to be backfilled later.
    *
    * @param okapiHeaders The headers for the current API call.
    * @return User information based on userid from header.
@@ -46,51 +106,143 @@ public class UserService {
     String token = calculateTenantId(headers.get(XOkapiHeaders.TOKEN));
     Optional<UserInfo> userInfo = TokenUtils.userInfoFromToken(token);
 
-    return userInfo.isPresent()
-      ? fetchUser(userInfo.get(), headers)
-      : failedPromise();
+    if (!userInfo.isPresent()) {
+      return failedPromise();
+    }
+    if (userFromToken && StringUtils.isNotBlank(userInfo.get().getUserName())) {
+      User user = new User();
+      user.setId(userInfo.get().getUserId());
+      user.setUsername(userInfo.get().getUserName());
+      return Future.succeededFuture(user);
+    }
+    return fetchUser(userInfo.get(), headers);
   }
 
   private Future<User> fetchUser(UserInfo userInfo, CaseInsensitiveMap<String, String> headers) {
-    Promise<User> promise = Promise.promise();
     final String tenantId = calculateTenantId(headers.get(XOkapiHeaders.TENANT));
-    String okapiURL = headers.get(XOkapiHeaders.URL);
     String userId = userInfo.getUserId();
-    String url = String.format(USERS_ENDPOINT_TEMPLATE, userId);
+    String cacheKey = tenantId + ":" + userId;
+    User cached = users.getIfPresent(cacheKey);
+    if (cached != null) {
+      return Future.succeededFuture(cached);
+    }
+    Promise<User> promise = Promise.promise();
+    Future<User> inFlight = lookups.putIfAbsent(cacheKey, promise.future());
+    if (inFlight != null) {
+      return withDegradedMode(inFlight, userId);
+    }
+    // every path below completes the promise, which removes the lookup
+    promise.future().onComplete(result -> lookups.remove(cacheKey, promise.future()));
+    CircuitBreaker circuitBreaker = circuitBreaker(headers.get(XOkapiHeaders.URL));
+    if (circuitBreaker.allowRequest()) {
+      promise.future().onComplete(result -> {
+        if (result.succeeded() || !isUnavailable(result.cause())) {
+          circuitBreaker.recordSuccess();
+        } else {
+          circuitBreaker.recordFailure();
+        }
+      });
+      requestUser(userId, cacheKey, headers, promise);
+    } else {
+      promise.fail(new IllegalStateException(CIRCUIT_OPEN_MESSAGE));
+    }
+    return withDegradedMode(promise.future(), userId);
+  }
+
+  /**
+   * In degraded mode a lookup that failed because mod-users is unavailable returns the user with id only
+   */
+  private Future<User> withDegradedMode(Future<User> lookup, String userId) {
+    if (!degradedMode) {
+      return lookup;
+    }
+    return lookup.recover(e -> {
+      if (!isUnavailable(e)) {
+        return Future.failedFuture(e);
+      }
+      LOGGER.warn(String.format(DEGRADED_MESSAGE, userId, e.getMessage()));
+      User user = new User();
+      user.setId(userId);
+      user.setDegraded(true);
+      return Future.succeededFuture(user);
+    });
+  }
+
+  private static boolean isUnavailable(Throwable e) {
+    return !(e instanceof NotAuthorizedException || e instanceof NotFoundException);
+  }
+
+  private void requestUser(String userId, String cacheKey, CaseInsensitiveMap<String, String> headers,
+                           Promise<User> promise) {
+    String okapiURL = headers.get(XOkapiHeaders.URL);
+    String url = okapiURL + String.format(USERS_ENDPOINT_TEMPLATE, userId);
     try {
-      final HttpClientInterface httpClient = HttpClientFactory.getHttpClient(okapiURL, tenantId);
-      httpClient.request(url, headers)
-        .thenApply(response -> {
-          try {
-            if (Response.isSuccess(response.getCode())) {
-              return response.getBody().mapTo(User.class);
-            } else if (response.getCode() == 401 || response.getCode() == 403) {
-              LOGGER.error(AUTHORIZATION_FAILURE_MESSAGE);
-              throw new NotAuthorizedException(AUTHORIZATION_FAILURE_MESSAGE);
-            } else if (response.getCode() == 404) {
-              LOGGER.error(USER_NOT_FOUND_MESSAGE);
-              throw new NotFoundException(USER_NOT_FOUND_MESSAGE);
-            } else {
-              String msg = String.format(CANNOT_GET_USER_DATA_MESSAGE, response.getError());
-              LOGGER.error(msg, response.getException());
-              throw new IllegalStateException(response.getError().toString());
-            }
-          } finally {
-            httpClient.closeClient();
-          }
+      HttpClientRequest request = httpClients.get(okapiURL).getAbs(url)
+        .setTimeout(httpClients.getRequestTimeoutMillis())
+        .exceptionHandler(e -> {
+          LOGGER.error(String.format(CANNOT_GET_USER_DATA_MESSAGE, e.getMessage()), e);
+          promise.tryFail(e);
         })
-        .thenAccept(promise::complete)
-        .exceptionally(e -> {
-          promise.fail(e.getCause());
-          return null;
-        });
+        .handler(response -> response
+          .exceptionHandler(e -> {
+            LOGGER.error(String.format(CANNOT_GET_USER_DATA_MESSAGE, e.getMessage()), e);
+            promise.tryFail(e);
+          })
+          .bodyHandler(body -> {
+            try {
+              User user = toUser(response.statusCode(), body);
+              users.put(cacheKey, user);
+              promise.tryComplete(user);
+            } catch (Exception e) {
+              promise.tryFail(e);
+            }
+          }));
+      headers.forEach((name, value) -> {
+        if (name.toLowerCase().startsWith(OKAPI_HEADER_PREFIX)) {
+          request.putHeader(name, value);
+        }
+      });
+      request.putHeader(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON).end();
     } catch (Exception e) {
       String msg = String.format(CANNOT_GET_USER_DATA_MESSAGE, e.getMessage());
       LOGGER.error(msg, e);
-      promise.fail(e);
+      promise.tryFail(e);
     }
+  }
 
-    return promise.future();
+  private User toUser(int statusCode, Buffer body) {
+    if (Response.isSuccess(statusCode)) {
+      return body.toJsonObject().mapTo(User.class);
+    } else if (statusCode == 401 || statusCode == 403) {
+      LOGGER.error(AUTHORIZATION_FAILURE_MESSAGE);
+      throw new NotAuthorizedException(AUTHORIZATION_FAILURE_MESSAGE);
+    } else if (statusCode == 404) {
+      LOGGER.error(USER_NOT_FOUND_MESSAGE);
+      throw new NotFoundException(USER_NOT_FOUND_MESSAGE);
+    } else {
+      String msg = String.format(CANNOT_GET_USER_DATA_MESSAGE, statusCode + " " + body);
+      LOGGER.error(msg);
+      throw new IllegalStateException(msg);
+    }
+  }
+
+  /**
+   * @param okapiUrl - value of X-Okapi-Url header
+   */
+  public CircuitBreaker.State getCircuitState(String okapiUrl) {
+    return circuitBreaker(okapiUrl).getState();
+  }
+
+  private CircuitBreaker circuitBreaker(String okapiUrl) {
+    return circuitBreakers.computeIfAbsent(StringUtils.defaultString(okapiUrl),
+      url -> new CircuitBreaker(breakerFailures, breakerOpenMillis));
+  }
+
+  /**
+   * @return hit/miss/eviction counters of the cache of users
+   */
+  public CacheStats stats() {
+    return users.stats();
   }
 
   private Future<User> failedPromise() {
@@ -0,0 +1,88 @@
+package org.folio.service;
+
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import io.vertx.core.Future;
+import io.vertx.core.logging.Logger;
+import io.vertx.core.logging.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import org.folio.model.User;
+import org.folio.repository.CustomFieldsRepository;
+
+/**
+ * Users whose custom field changes were saved without username because mod-users was unavailable.
+ * Only the tenant and the id of a user are kept, not the token of the request. The username is set in the metadata
+ * of the custom fields of the user on the next change of custom fields by the same user, whose request looks up
+ * the user with its own token. The number of users is limited and users that don't change custom fields again
+ * expire.
+ */
+@Component
+public class UsernameBackfill {
+
+  private static final Logger LOG = LoggerFactory.getLogger(UsernameBackfill.class);
+
+  /**
+   * Users without username by tenant id and user id
+   */
+  private final Cache<String, Boolean> pendingUsers;
+
+  @Autowired
+  private CustomFieldsRepository repository;
+  @Autowired
+  private CustomFieldDefinitionCache definitionCache;
+
+  public UsernameBackfill(@Value("${custom.fields.user.backfill.pending.max:1000}") long maxPendingUsers,
+                          @Value("${custom.fields.user.backfill.expire.seconds:86400}") long expireSeconds) {
+    this.pendingUsers = CacheBuilder.newBuilder()
+      .maximumSize(maxPendingUsers)
+      .expireAfterWrite(expireSeconds, TimeUnit.SECONDS)
+      .build();
+  }
+
+  /**
+   * Takes the user looked up for a change of custom fields. A degraded user, who has no username because
+   * mod-users was unavailable, becomes pending. If a pending user is found with username, the username is set
+   * in the custom fields of the user. Failures to set the username are logged, they don't fail the change.
+   *
+   * @param user     - user of the request
+   * @param tenantId - tenant id
+   */
+  public Future<Void> update(User user, String tenantId) {
+    String key = tenantId + ":" + user.getId();
+    if (user.isDegraded()) {
+      pendingUsers.put(key, Boolean.TRUE);
+      return Future.succeededFuture();
+    }
+    if (pendingUsers.getIfPresent(key) == null) {
+      return Future.succeededFuture();
+    }
+    pendingUsers.invalidate(key);
+    if (user.getUsername() == null) {
+      return Future.succeededFuture();
+    }
+    return repository.backfillUsername(user.getId(), user.getUsername(), tenantId)
+      .map(updated -> {
+        LOG.info("Username of user {} is set in {} custom fields.", user.getId(), updated);
+        definitionCache.invalidate(tenantId);
+        return (Void) null;
+      })
+      .otherwise(e -> {
+        LOG.warn("Failed to set username of user {}: {}", user.getId(), e.getMessage());
+        pendingUsers.put(key, Boolean.TRUE);
+        return null;
+      });
+  }
+
+  /**
+   * @return number of users waiting for username
+   */
+  long size() {
+    pendingUsers.cleanUp();
+    return pendingUsers.size();
+  }
+}
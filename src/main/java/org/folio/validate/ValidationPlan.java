@@ -0,0 +1,208 @@
+package org.folio.validate;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import org.folio.rest.jaxrs.model.CustomField;
+import org.folio.rest.jaxrs.model.Error;
+import org.folio.validate.value.CompiledValueValidator;
+import org.folio.validate.value.CustomFieldValueValidator;
+
+/**
+ * Immutable set of value validators compiled from the custom field definitions of a tenant.
+ * Validators of a field are looked up by refId, so validation of a value doesn't depend on
+ * the number of defined fields.
+ */
+public final class ValidationPlan {
+
+  private final Map<String, FieldPlan> fieldsByRefId;
+
+  private ValidationPlan(Map<String, FieldPlan> fieldsByRefId) {
+    this.fieldsByRefId = fieldsByRefId;
+  }
+
+  /**
+   * Compiles validation plan of the definitions
+   *
+   * @param definitions        custom field definitions
+   * @param validatorsByType   value validators applicable to each field type
+   */
+  public static ValidationPlan compile(List<CustomField> definitions,
+                                       Map<CustomField.Type, List<CustomFieldValueValidator>> validatorsByType) {
+    Map<String, FieldPlan> fieldsByRefId = new HashMap<>();
+    for (CustomField definition : definitions) {
+      List<CustomFieldValueValidator> validators =
+        validatorsByType.getOrDefault(definition.getType(), Collections.emptyList());
+      List<CompiledValueValidator> compiled = new ArrayList<>(validators.size());
+      validators.forEach(validator -> compiled.add(validator.compile(definition)));
+      fieldsByRefId.putIfAbsent(definition.getRefId(), new FieldPlan(definition.getRefId(), compiled));
+    }
+    return new ValidationPlan(fieldsByRefId);
+  }
+
+  /**
+   * Validates values of custom fields
+   *
+   * @param customFieldsMap map of custom field parsed from json
+   * @return list of validation errors, empty if the values are valid
+   */
+  public List<Error> validate(Map<String, Object> customFieldsMap) {
+    return validate(customFieldsMap, ValidationResult.UNLIMITED).getErrors();
+  }
+
+  /**
+   * Validates values of custom fields until the given number of errors is found
+   *
+   * @param customFieldsMap map of custom field parsed from json
+   * @param maxErrors       number of errors after which validation stops, {@link ValidationResult#UNLIMITED}
+   *                        to validate all values
+   */
+  public ValidationResult validate(Map<String, Object> customFieldsMap, int maxErrors) {
+    ValidationResult result = new ValidationResult(maxErrors);
+    for (Map.Entry<String, Object> entry : customFieldsMap.entrySet()) {
+      if (result.isLimitReached()) {
+        break;
+      }
+      String key = entry.getKey();
+      FieldPlan fieldPlan = fieldsByRefId.get(key);
+      if (fieldPlan != null) {
+        fieldPlan.validate(entry.getValue(), result);
+      } else {
+        result.addUndefinedField(key);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Validates values of custom fields while reading them from json, no map of values is built.
+   *
+   * @param parser parser positioned before or at the start of the custom fields json object
+   * @return list of validation errors, empty if the values are valid
+   * @throws IOException if json can't be read
+   * @see #validate(JsonParser, int)
+   */
+  public List<Error> validate(JsonParser parser) throws IOException {
+    return validate(parser, ValidationResult.UNLIMITED).getErrors();
+  }
+
+  /**
+   * Validates values of custom fields while reading them from json, no map of values is built.
+   * If a value is an array, its elements are validated one by one as they are read. The value parameter
+   * of an error holds the array element that failed validation, object and array elements are represented
+   * as "{}" and "[]".
+   * <p>
+   * Reading stops once the given number of errors is found, the rest of json is neither validated nor parsed.
+   *
+   * @param parser    parser positioned before or at the start of the custom fields json object
+   * @param maxErrors number of errors after which validation stops, {@link ValidationResult#UNLIMITED}
+   *                  to validate all values
+   * @throws IOException if json can't be read
+   */
+  public ValidationResult validate(JsonParser parser, int maxErrors) throws IOException {
+    JsonToken token = parser.currentToken() != null ? parser.currentToken() : parser.nextToken();
+    if (token != JsonToken.START_OBJECT) {
+      throw new JsonParseException(parser, "Custom fields must be a json object");
+    }
+    ValidationResult result = new ValidationResult(maxErrors);
+    while (!result.isLimitReached() && parser.nextToken() == JsonToken.FIELD_NAME) {
+      String key = parser.getCurrentName();
+      parser.nextToken();
+      FieldPlan fieldPlan = fieldsByRefId.get(key);
+      if (fieldPlan != null) {
+        fieldPlan.validate(parser, result);
+      } else {
+        parser.skipChildren();
+        result.addUndefinedField(key);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Reads a scalar value at the current token. Objects and arrays are skipped and represented by
+   * an empty map or list, which is enough for validators to reject them by type.
+   */
+  private static Object readElement(JsonParser parser) throws IOException {
+    switch (parser.currentToken()) {
+      case VALUE_STRING:
+        return parser.getText();
+      case VALUE_TRUE:
+        return Boolean.TRUE;
+      case VALUE_FALSE:
+        return Boolean.FALSE;
+      case VALUE_NUMBER_INT:
+      case VALUE_NUMBER_FLOAT:
+        return parser.getNumberValue();
+      case START_OBJECT:
+        parser.skipChildren();
+        return Collections.emptyMap();
+      case START_ARRAY:
+        parser.skipChildren();
+        return Collections.emptyList();
+      default:
+        return null;
+    }
+  }
+
+  private static final class FieldPlan {
+
+    private final String refId;
+    private final List<CompiledValueValidator> validators;
+
+    private FieldPlan(String refId, List<CompiledValueValidator> validators) {
+      this.refId = refId;
+      this.validators = validators;
+    }
+
+    private void validate(Object fieldValue, ValidationResult result) {
+      for (CompiledValueValidator validator : validators) {
+        if (result.isLimitReached()) {
+          return;
+        }
+        String message = validator.validate(fieldValue);
+        if (message != null) {
+          result.addInvalidValue(fieldValue, refId, message);
+        }
+      }
+    }
+
+    private void validate(JsonParser parser, ValidationResult result) throws IOException {
+      if (parser.currentToken() != JsonToken.START_ARRAY) {
+        validate(readElement(parser), result);
+        return;
+      }
+      boolean[] failed = new boolean[validators.size()];
+      for (int i = 0; i < validators.size(); i++) {
+        CompiledValueValidator validator = validators.get(i);
+        if (!validator.acceptsList()) {
+          failed[i] = true;
+          String message = validator.validateValue(Collections.emptyList());
+          if (message != null) {
+            result.addInvalidValue(Collections.emptyList(), refId, message);
+          }
+        }
+      }
+      while (!result.isLimitReached() && parser.nextToken() != JsonToken.END_ARRAY) {
+        Object element = readElement(parser);
+        for (int i = 0; i < validators.size() && !result.isLimitReached(); i++) {
+          if (!failed[i]) {
+            String message = validators.get(i).validateElement(element);
+            if (message != null) {
+              failed[i] = true;
+              result.addInvalidValue(element, refId, message);
+            }
+          }
+        }
+      }
+    }
+  }
+}
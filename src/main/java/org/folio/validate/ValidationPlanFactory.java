@@ -0,0 +1,56 @@
+package org.folio.validate;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import org.folio.rest.jaxrs.model.CustomField;
+import org.folio.validate.value.CustomFieldValueValidator;
+
+/**
+ * Provides {@link ValidationPlan} of a definition set. A plan is compiled once per definition list instance
+ * and reused for as long as the list is alive, so the plan is rebuilt only when the cached definitions change.
+ */
+@Component
+public class ValidationPlanFactory {
+
+  private final Map<CustomField.Type, List<CustomFieldValueValidator>> validatorsByType;
+  /**
+   * Weak keys are compared by identity, an entry is dropped once its definition list is no longer referenced
+   */
+  private final Cache<List<CustomField>, ValidationPlan> plans = CacheBuilder.newBuilder()
+    .weakKeys()
+    .build();
+
+  @Autowired
+  public ValidationPlanFactory(List<CustomFieldValueValidator> validators) {
+    validatorsByType = new EnumMap<>(CustomField.Type.class);
+    for (CustomField.Type type : CustomField.Type.values()) {
+      List<CustomFieldValueValidator> applicable = new ArrayList<>();
+      validators.stream()
+        .filter(validator -> validator.supportedTypes().contains(type))
+        .forEach(applicable::add);
+      validatorsByType.put(type, applicable);
+    }
+  }
+
+  /**
+   * Returns validation plan of the definitions, compiling it if the list wasn't seen before
+   *
+   * @param definitions custom field definitions
+   */
+  public ValidationPlan getPlan(List<CustomField> definitions) {
+    try {
+      return plans.get(definitions, () -> ValidationPlan.compile(definitions, validatorsByType));
+    } catch (ExecutionException e) {
+      throw new IllegalStateException(e.getCause());
+    }
+  }
+}
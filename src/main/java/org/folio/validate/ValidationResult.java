@@ -0,0 +1,60 @@
+package org.folio.validate;
+
+import static org.folio.validate.ValidationUtil.createError;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.folio.rest.jaxrs.model.Error;
+
+/**
+ * Errors found by validation of custom field values. Validation stops once the maximum number of errors is collected,
+ * so if {@link #isLimitReached()} returns true the rest of the values weren't validated and may have more errors.
+ */
+public final class ValidationResult {
+
+  /**
+   * Maximum number of errors meaning that all values are validated
+   */
+  public static final int UNLIMITED = 0;
+
+  private final int maxErrors;
+  private final List<Error> errors = new ArrayList<>();
+
+  /**
+   * @param maxErrors number of errors after which validation stops, {@link #UNLIMITED} to validate all values
+   */
+  public ValidationResult(int maxErrors) {
+    this.maxErrors = maxErrors;
+  }
+
+  public boolean isValid() {
+    return errors.isEmpty();
+  }
+
+  public List<Error> getErrors() {
+    return errors;
+  }
+
+  /**
+   * @return true if the maximum number of errors is collected and validation should stop
+   */
+  public boolean isLimitReached() {
+    return maxErrors > 0 && errors.size() >= maxErrors;
+  }
+
+  /**
+   * Adds error of an invalid value, the value is serialized to json only if the error is kept
+   */
+  void addInvalidValue(Object fieldValue, String refId, String message) {
+    if (!isLimitReached()) {
+      errors.add(createError(ValidationUtil.toJson(fieldValue), refId, message));
+    }
+  }
+
+  void addUndefinedField(String refId) {
+    if (!isLimitReached()) {
+      errors.add(createError(refId, "customFields", "Custom field with refId " + refId + " is not found"));
+    }
+  }
+}
@@ -1,15 +1,41 @@
 package org.folio.validate;
 
+import java.util.List;
 import java.util.Map;
 
 import io.vertx.core.Future;
+import io.vertx.core.buffer.Buffer;
+
+import org.folio.rest.jaxrs.model.Errors;
 
 public interface ValidationService {
   /**
    * Validates values of custom fields
-   * If validation fails then failed Future with CustomFieldValidationException is returned
+   * If validation fails then failed Future with CustomFieldValidationException is returned,
+   * validation stops after custom.fields.validation.errors.max errors if the property is greater than 0
    * @param customFieldsMap map of custom field parsed from json
    *
    */
   Future<Void> validateCustomFields(Map<String, Object> customFieldsMap, String tenantId);
+
+  /**
+   * Validates values of custom fields while reading them from json, without building a map of values
+   * If validation fails then failed Future with CustomFieldValidationException is returned,
+   * if json is malformed then failed Future with DecodeException is returned.
+   * Like {@link #validateCustomFields(Map, String)} validation stops after custom.fields.validation.errors.max errors,
+   * the rest of json isn't read then
+   * @param customFieldsJson json object of custom fields
+   *
+   */
+  Future<Void> validateCustomFields(Buffer customFieldsJson, String tenantId);
+
+  /**
+   * Validates values of custom fields of several records, definitions are loaded once for the whole batch.
+   * Large batches are split into chunks that are validated on the worker pool.
+   * If custom.fields.validation.batch.errors.max is greater than 0, validation stops after that many errors
+   * of the whole batch and only the first errors by record index are returned.
+   * @param customFieldsMaps maps of custom fields parsed from json, one map per record
+   * @return errors of invalid records by index of the record in the list, the map is empty if all records are valid
+   */
+  Future<Map<Integer, Errors>> validateCustomFieldsBatch(List<Map<String, Object>> customFieldsMaps, String tenantId);
 }
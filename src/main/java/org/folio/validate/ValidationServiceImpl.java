@@ -1,86 +1,172 @@
 package org.folio.validate;
 
-import static org.folio.validate.ValidationUtil.createError;
-
+import java.io.IOException;
 import java.util.ArrayList;
-import java.util.Collection;
-import java.util.Collections;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.TreeMap;
 
-import com.google.gson.Gson;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import io.netty.buffer.ByteBufInputStream;
+import io.vertx.core.CompositeFuture;
 import io.vertx.core.Context;
 import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.DecodeException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 
-import org.folio.rest.jaxrs.model.CustomField;
 import org.folio.rest.jaxrs.model.Error;
 import org.folio.rest.jaxrs.model.Errors;
-import org.folio.service.CustomFieldsService;
+import org.folio.service.CustomFieldDefinitionCache;
 import org.folio.spring.SpringContextUtil;
-import org.folio.validate.value.CustomFieldValueValidator;
 
 public class ValidationServiceImpl implements ValidationService {
 
+  private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
   @Autowired
-  private List<CustomFieldValueValidator> validators;
+  private ValidationPlanFactory planFactory;
   @Autowired
-  private CustomFieldsService customFieldsService;
+  private CustomFieldDefinitionCache definitionCache;
+  @Value("${custom.fields.validation.batch.chunk.size:1000}")
+  private int batchChunkSize;
+  @Value("${custom.fields.validation.errors.max:0}")
+  private int maxErrors;
+  @Value("${custom.fields.validation.batch.errors.max:0}")
+  private int batchMaxErrors;
+
+  private final Context vertxContext;
 
   public ValidationServiceImpl(Context vertxContext) {
+    this.vertxContext = vertxContext;
     SpringContextUtil.autowireDependencies(this, vertxContext);
   }
 
   @Override
   public Future<Void> validateCustomFields(Map<String, Object> customFieldsMap, String tenantId) {
-    return customFieldsService
-      .findByQuery(null, 0, Integer.MAX_VALUE, null, tenantId)
-      .compose(fields -> {
-        List<Error> errorList = new ArrayList<>();
-        for (Map.Entry<String, Object> entry : customFieldsMap.entrySet()) {
-          String key = entry.getKey();
-          Optional<CustomField> customField = findCustomField(key, fields.getCustomFields());
-          if (customField.isPresent()) {
-            errorList.addAll(validate(entry.getValue(), customField.get()));
-          } else {
-            errorList.add(
-              ValidationUtil
-                .createError(key, "customFields", "Custom field with refId " + key + " is not found"));
-          }
+    return definitionCache
+      .getDefinitions(tenantId)
+      .map(planFactory::getPlan)
+      .compose(plan -> {
+        ValidationResult result = plan.validate(customFieldsMap, maxErrors);
+        if (!result.isValid()) {
+          return Future.failedFuture(new CustomFieldValidationException(toErrors(result.getErrors())));
+        }
+        return Future.succeededFuture();
+      });
+  }
 
+  @Override
+  public Future<Void> validateCustomFields(Buffer customFieldsJson, String tenantId) {
+    return definitionCache
+      .getDefinitions(tenantId)
+      .map(planFactory::getPlan)
+      .compose(plan -> {
+        ValidationResult result;
+        try (JsonParser parser = JSON_FACTORY.createParser(new ByteBufInputStream(customFieldsJson.getByteBuf()))) {
+          result = plan.validate(parser, maxErrors);
+        } catch (IOException e) {
+          return Future.failedFuture(new DecodeException("Failed to decode custom fields: " + e.getMessage()));
         }
-        if (!errorList.isEmpty()) {
-          Errors errors = new Errors();
-          errors.setErrors(errorList);
-          return Future.failedFuture(new CustomFieldValidationException(errors));
+        if (!result.isValid()) {
+          return Future.failedFuture(new CustomFieldValidationException(toErrors(result.getErrors())));
         }
         return Future.succeededFuture();
       });
   }
 
-  private Optional<CustomField> findCustomField(String key, List<CustomField> customFields) {
-    return customFields.stream()
-      .filter(field -> key.equals(field.getRefId()))
-      .findFirst();
+  @Override
+  public Future<Map<Integer, Errors>> validateCustomFieldsBatch(List<Map<String, Object>> customFieldsMaps,
+                                                                String tenantId) {
+    return definitionCache
+      .getDefinitions(tenantId)
+      .map(planFactory::getPlan)
+      .compose(plan -> {
+        if (customFieldsMaps.size() <= batchChunkSize) {
+          return Future.succeededFuture(validateChunk(plan, customFieldsMaps, 0, customFieldsMaps.size()));
+        }
+        return validateInChunks(plan, customFieldsMaps);
+      });
+  }
+
+  @SuppressWarnings("rawtypes")
+  private Future<Map<Integer, Errors>> validateInChunks(ValidationPlan plan, List<Map<String, Object>> customFieldsMaps) {
+    List<Future> chunkResults = new ArrayList<>();
+    for (int from = 0; from < customFieldsMaps.size(); from += batchChunkSize) {
+      int chunkStart = from;
+      int chunkEnd = Math.min(from + batchChunkSize, customFieldsMaps.size());
+      Promise<Map<Integer, Errors>> chunkResult = Promise.promise();
+      vertxContext.executeBlocking(
+        promise -> promise.complete(validateChunk(plan, customFieldsMaps, chunkStart, chunkEnd)),
+        false, chunkResult);
+      chunkResults.add(chunkResult.future());
+    }
+    return CompositeFuture.all(chunkResults).map(composite -> {
+      Map<Integer, Errors> result = new TreeMap<>();
+      for (int i = 0; i < composite.size(); i++) {
+        result.putAll(composite.resultAt(i));
+      }
+      return limitBatchErrors(result);
+    });
   }
 
-  private List<Error> validate(Object fieldValue, CustomField fieldDefinition) {
-    return validators.stream()
-      .filter(validator -> validator.supportedTypes().contains(fieldDefinition.getType()))
-      .map(validator -> validate(fieldValue, fieldDefinition, validator))
-      .flatMap(Collection::stream)
-      .collect(Collectors.toList());
+  /**
+   * Validates records of the chunk until the maximum number of errors of a batch is found
+   */
+  private Map<Integer, Errors> validateChunk(ValidationPlan plan, List<Map<String, Object>> customFieldsMaps,
+                                             int from, int to) {
+    Map<Integer, Errors> result = new TreeMap<>();
+    int remainingErrors = batchMaxErrors;
+    for (int i = from; i < to; i++) {
+      ValidationResult recordResult = plan.validate(customFieldsMaps.get(i), recordMaxErrors(remainingErrors));
+      if (!recordResult.isValid()) {
+        result.put(i, toErrors(recordResult.getErrors()));
+        remainingErrors -= recordResult.getErrors().size();
+        if (batchMaxErrors != ValidationResult.UNLIMITED && remainingErrors <= 0) {
+          break;
+        }
+      }
+    }
+    return result;
   }
 
-  private List<Error> validate(Object fieldValue, CustomField fieldDefinition, CustomFieldValueValidator validator) {
-    try {
-      validator.validate(fieldValue, fieldDefinition);
-    } catch (IllegalArgumentException ex) {
-      return Collections.singletonList(
-        createError(new Gson().toJson(fieldValue), fieldDefinition.getRefId(), ex.getMessage()));
+  private int recordMaxErrors(int remainingBatchErrors) {
+    if (batchMaxErrors == ValidationResult.UNLIMITED) {
+      return maxErrors;
     }
-    return Collections.emptyList();
+    return maxErrors == ValidationResult.UNLIMITED ? remainingBatchErrors : Math.min(maxErrors, remainingBatchErrors);
+  }
+
+  /**
+   * Chunks are validated concurrently and each of them stops at the maximum number of errors of a batch,
+   * so the merged errors are cut to the first errors by record index, as if the records were validated one by one
+   */
+  private Map<Integer, Errors> limitBatchErrors(Map<Integer, Errors> errorsByRecord) {
+    if (batchMaxErrors == ValidationResult.UNLIMITED) {
+      return errorsByRecord;
+    }
+    Map<Integer, Errors> result = new TreeMap<>();
+    int remainingErrors = batchMaxErrors;
+    for (Map.Entry<Integer, Errors> entry : errorsByRecord.entrySet()) {
+      if (remainingErrors <= 0) {
+        break;
+      }
+      List<Error> errorList = entry.getValue().getErrors();
+      if (errorList.size() > remainingErrors) {
+        errorList = new ArrayList<>(errorList.subList(0, remainingErrors));
+      }
+      result.put(entry.getKey(), toErrors(errorList));
+      remainingErrors -= errorList.size();
+    }
+    return result;
+  }
+
+  private Errors toErrors(List<Error> errorList) {
+    Errors errors = new Errors();
+    errors.setErrors(errorList);
+    return errors;
   }
 }
@@ -1,10 +1,17 @@
 package org.folio.validate;
 
+import com.google.gson.Gson;
+
 import org.folio.rest.jaxrs.model.Error;
 import org.folio.rest.jaxrs.model.Parameter;
 
 public class ValidationUtil {
 
+  /**
+   * Gson is thread-safe, one instance serializes values of all errors
+   */
+  private static final Gson GSON = new Gson();
+
   private ValidationUtil() {
   }
 
@@ -20,4 +27,10 @@ public class ValidationUtil {
     return error;
   }
 
+  /**
+   * Serializes invalid value to json for the value parameter of an error
+   */
+  public static String toJson(Object value) {
+    return GSON.toJson(value);
+  }
 }
@@ -1,7 +1,5 @@
 package org.folio.validate.value;
 
-import static org.apache.commons.lang3.Validate.isInstanceOf;
-
 import static org.folio.validate.value.CustomFieldValueValidatorConstants.EXPECT_BOOLEAN_MESSAGE;
 
 import java.util.Collections;
@@ -15,8 +13,9 @@ import org.folio.rest.jaxrs.model.CustomField;
 public class CheckboxFieldValueValidator implements CustomFieldValueValidator {
 
   @Override
-  public void validate(Object fieldValue, CustomField fieldDefinition) {
-    isInstanceOf(Boolean.class, fieldValue, EXPECT_BOOLEAN_MESSAGE, fieldDefinition.getType());
+  public CompiledValueValidator compile(CustomField fieldDefinition) {
+    String expectBooleanMessage = String.format(EXPECT_BOOLEAN_MESSAGE, fieldDefinition.getType());
+    return fieldValue -> fieldValue instanceof Boolean ? null : expectBooleanMessage;
   }
 
   @Override
@@ -0,0 +1,62 @@
+package org.folio.validate.value;
+
+import java.util.List;
+
+/**
+ * Validator of custom field values bound to a single field definition.
+ * Everything that depends only on the definition is computed once, when the validator is compiled.
+ * <p>
+ * Array values that the field accepts are validated element by element, so the values can also be validated
+ * while they are being read from json, without collecting them into a list first.
+ * <p>
+ * Validation result is returned instead of thrown: methods return the error message of an invalid value
+ * and null if the value is valid.
+ */
+@FunctionalInterface
+public interface CompiledValueValidator {
+
+  /**
+   * Validates a value that is not validated element by element:
+   * a single value, or an array value if the field doesn't accept arrays
+   *
+   * @param fieldValue object that was parsed from json
+   * @return error message, null if the value is valid
+   */
+  String validateValue(Object fieldValue);
+
+  /**
+   * @return true if array values are validated element by element with {@link #validateElement(Object)}
+   */
+  default boolean acceptsList() {
+    return false;
+  }
+
+  /**
+   * Validates one element of an array value, used only if {@link #acceptsList()} returns true
+   *
+   * @param element element of array that was parsed from json
+   * @return error message, null if the element is valid
+   */
+  default String validateElement(Object element) {
+    return validateValue(element);
+  }
+
+  /**
+   * Validates custom field value
+   *
+   * @param fieldValue object that was parsed from json, type of object is String or List<String>
+   * @return error message of the first invalid element, null if the value is valid
+   */
+  default String validate(Object fieldValue) {
+    if (acceptsList() && fieldValue instanceof List) {
+      for (Object element : (List<?>) fieldValue) {
+        String message = validateElement(element);
+        if (message != null) {
+          return message;
+        }
+      }
+      return null;
+    }
+    return validateValue(fieldValue);
+  }
+}
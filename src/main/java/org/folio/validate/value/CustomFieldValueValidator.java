@@ -13,7 +13,20 @@ public interface CustomFieldValueValidator {
    * @param fieldDefinition field definition that will be used to validate value
    * @throws IllegalArgumentException if validation fails
    */
-  void validate(Object fieldValue, CustomField fieldDefinition);
+  default void validate(Object fieldValue, CustomField fieldDefinition) {
+    String message = compile(fieldDefinition).validate(fieldValue);
+    if (message != null) {
+      throw new IllegalArgumentException(message);
+    }
+  }
+
+  /**
+   * Creates validator of values of the given field definition
+   *
+   * @param fieldDefinition field definition that will be used to validate values
+   * @return validator bound to the definition
+   */
+  CompiledValueValidator compile(CustomField fieldDefinition);
 
   /**
    * @return List of custom field types that can be processed by this validator
@@ -1,14 +1,13 @@
 package org.folio.validate.value;
 
-import static org.apache.commons.lang3.Validate.isInstanceOf;
-import static org.apache.commons.lang3.Validate.isTrue;
-
 import static org.folio.validate.value.CustomFieldValueValidatorConstants.EXPECT_ARRAY_MESSAGE;
 import static org.folio.validate.value.CustomFieldValueValidatorConstants.EXPECT_STRING_MESSAGE;
 import static org.folio.validate.value.CustomFieldValueValidatorConstants.NOT_ALLOWED_VALUE_MESSAGE;
 
 import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 import org.springframework.stereotype.Component;
 
@@ -19,37 +18,8 @@ import org.folio.rest.jaxrs.model.SelectFieldOption;
 public class SelectFieldValueValidator implements CustomFieldValueValidator {
 
   @Override
-  public void validate(Object fieldValue, CustomField fieldDefinition) {
-    boolean isRepeatable = fieldDefinition.getIsRepeatable();
-    CustomField.Type type = fieldDefinition.getType();
-
-    if (isRepeatable) {
-      validateFieldList(fieldValue, fieldDefinition);
-    } else {
-      if (CustomField.Type.MULTI_SELECT_DROPDOWN == type) {
-        if (fieldValue instanceof List) {
-          validateFieldList(fieldValue, fieldDefinition);
-        } else {
-          validateField(fieldValue, fieldDefinition);
-        }
-      } else {
-        validateField(fieldValue, fieldDefinition);
-      }
-    }
-  }
-
-  private void validateFieldList(Object fieldValue, CustomField fieldDefinition) {
-    isInstanceOf(List.class, fieldValue, EXPECT_ARRAY_MESSAGE, fieldDefinition.getType());
-    ((List<?>) fieldValue).forEach(val -> validateField(val, fieldDefinition));
-  }
-
-  private void validateField(Object fieldValue, CustomField fieldDefinition) {
-    isInstanceOf(String.class, fieldValue, EXPECT_STRING_MESSAGE, fieldDefinition.getType());
-    String optionId = (String) fieldValue;
-    List<SelectFieldOption> possibleValues = fieldDefinition.getSelectField().getOptions().getValues();
-    boolean isAllowedValue = possibleValues
-      .stream().anyMatch(selectFieldOption -> selectFieldOption.getId().equals(optionId));
-    isTrue(isAllowedValue, NOT_ALLOWED_VALUE_MESSAGE, fieldDefinition.getRefId(), possibleValues);
+  public CompiledValueValidator compile(CustomField fieldDefinition) {
+    return new CompiledSelectValidator(fieldDefinition);
   }
 
   @Override
@@ -60,4 +30,53 @@ public class SelectFieldValueValidator implements CustomFieldValueValidator {
       CustomField.Type.RADIO_BUTTON
     );
   }
+
+  /**
+   * Error messages depend only on the definition, they are formatted once
+   */
+  private static final class CompiledSelectValidator implements CompiledValueValidator {
+
+    private final CustomField.Type type;
+    private final boolean isRepeatable;
+    private final Set<String> possibleIds;
+    private final String expectArrayMessage;
+    private final String expectStringMessage;
+    private final String notAllowedValueMessage;
+
+    private CompiledSelectValidator(CustomField fieldDefinition) {
+      this.type = fieldDefinition.getType();
+      this.isRepeatable = fieldDefinition.getIsRepeatable();
+      List<SelectFieldOption> possibleValues = fieldDefinition.getSelectField().getOptions().getValues();
+      this.possibleIds = new HashSet<>();
+      possibleValues.forEach(selectFieldOption -> possibleIds.add(selectFieldOption.getId()));
+      this.expectArrayMessage = String.format(EXPECT_ARRAY_MESSAGE, type);
+      this.expectStringMessage = String.format(EXPECT_STRING_MESSAGE, type);
+      this.notAllowedValueMessage = String.format(NOT_ALLOWED_VALUE_MESSAGE, fieldDefinition.getRefId(), possibleValues);
+    }
+
+    @Override
+    public boolean acceptsList() {
+      return isRepeatable || CustomField.Type.MULTI_SELECT_DROPDOWN == type;
+    }
+
+    @Override
+    public String validateValue(Object fieldValue) {
+      if (isRepeatable && !(fieldValue instanceof List)) {
+        return expectArrayMessage;
+      }
+      return validateField(fieldValue);
+    }
+
+    @Override
+    public String validateElement(Object element) {
+      return validateField(element);
+    }
+
+    private String validateField(Object fieldValue) {
+      if (!(fieldValue instanceof String)) {
+        return expectStringMessage;
+      }
+      return possibleIds.contains(fieldValue) ? null : notAllowedValueMessage;
+    }
+  }
 }
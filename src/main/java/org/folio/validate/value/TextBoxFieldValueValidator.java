@@ -1,16 +1,13 @@
 package org.folio.validate.value;
 
-import static org.apache.commons.lang3.Validate.isInstanceOf;
-import static org.apache.commons.lang3.Validate.isTrue;
-
 import static org.folio.validate.value.CustomFieldValueValidatorConstants.EXPECT_STRING_MESSAGE;
 import static org.folio.validate.value.CustomFieldValueValidatorConstants.MAX_LENGTH_MESSAGE;
 
 import java.util.Arrays;
+import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
 
-import org.apache.commons.collections4.map.HashedMap;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
@@ -35,7 +32,7 @@ public class TextBoxFieldValueValidator implements CustomFieldValueValidator {
     this.textBoxShortLengthLimit = textBoxShortLengthLimit;
     this.textBoxLongLengthLimit = textBoxLongLengthLimit;
 
-    formatValidators = new HashedMap<>();
+    formatValidators = new EnumMap<>(TextField.FieldFormat.class);
     formatValidators.put(TextField.FieldFormat.TEXT, new TextFormatValidator());
     formatValidators.put(TextField.FieldFormat.EMAIL, new EmailFormatValidator());
     formatValidators.put(TextField.FieldFormat.NUMBER, new NumberFormatValidator());
@@ -43,35 +40,36 @@ public class TextBoxFieldValueValidator implements CustomFieldValueValidator {
   }
 
   @Override
-  public void validate(Object fieldValue, CustomField fieldDefinition) {
+  public CompiledValueValidator compile(CustomField fieldDefinition) {
+    CustomField.Type type = fieldDefinition.getType();
+    FormatValidator formatValidator = formatValidators.get(fieldDefinition.getTextField().getFieldFormat());
+    int lengthLimit = CustomField.Type.TEXTBOX_LONG == type ? textBoxLongLengthLimit : textBoxShortLengthLimit;
     boolean isRepeatable = fieldDefinition.getIsRepeatable();
+    String expectStringMessage = String.format(EXPECT_STRING_MESSAGE, type);
+    String maxLengthMessage = String.format(MAX_LENGTH_MESSAGE, lengthLimit);
+
+    return new CompiledValueValidator() {
+      @Override
+      public boolean acceptsList() {
+        return isRepeatable;
+      }
 
-    if (isRepeatable) {
-      if (fieldValue instanceof List) {
-        ((List<?>) fieldValue).forEach(val -> validateValue(val, fieldDefinition));
-      } else {
-        validateValue(fieldValue, fieldDefinition);
+      @Override
+      public String validateValue(Object fieldValue) {
+        if (!(fieldValue instanceof String)) {
+          return expectStringMessage;
+        }
+        String value = (String) fieldValue;
+        if (!formatValidator.isValid(value)) {
+          return formatValidator.getErrorMessage(value);
+        }
+        return value.length() <= lengthLimit ? null : maxLengthMessage;
       }
-    } else {
-      validateValue(fieldValue, fieldDefinition);
-    }
+    };
   }
 
   @Override
   public List<CustomField.Type> supportedTypes() {
     return Arrays.asList(CustomField.Type.TEXTBOX_LONG, CustomField.Type.TEXTBOX_SHORT);
   }
-
-  private void validateValue(Object fieldValue, CustomField fieldDefinition) {
-    CustomField.Type type = fieldDefinition.getType();
-    TextField.FieldFormat fieldFormat = fieldDefinition.getTextField().getFieldFormat();
-    isInstanceOf(String.class, fieldValue, EXPECT_STRING_MESSAGE, type);
-    formatValidators.get(fieldFormat).validate(fieldValue.toString());
-    final int textFieldValueLength = fieldValue.toString().length();
-    if (CustomField.Type.TEXTBOX_LONG == type) {
-      isTrue(textFieldValueLength <= textBoxLongLengthLimit, MAX_LENGTH_MESSAGE, textBoxLongLengthLimit);
-    } else {
-      isTrue(textFieldValueLength <= textBoxShortLengthLimit, MAX_LENGTH_MESSAGE, textBoxShortLengthLimit);
-    }
-  }
 }
@@ -2,16 +2,83 @@ package org.folio.validate.value.format;
 
 import org.apache.commons.validator.routines.EmailValidator;
 
+/**
+ * Accepts the same values as {@link EmailValidator#getInstance()}. Addresses of printable ASCII characters without
+ * quotes, backslashes and domain literals are checked in a single pass; other values,
+ * like quoted local parts or internationalized domains, are passed to {@link EmailValidator}.
+ */
 public class EmailFormatValidator implements FormatValidator {
 
   private static final String INVALID_FORMAT_MESSAGE = "Invalid Email format: %s";
 
   private static final EmailValidator VALIDATOR = EmailValidator.getInstance();
 
+  private static final int MAX_USERNAME_LENGTH = 64;
+
+  @Override
+  public String getErrorMessage(String value) {
+    return String.format(INVALID_FORMAT_MESSAGE, value);
+  }
+
   @Override
-  public void validate(String value) {
-    if (!VALIDATOR.isValid(value)) {
-      throw new IllegalArgumentException(String.format(INVALID_FORMAT_MESSAGE, value));
+  public boolean isValid(String value) {
+    if (value == null) {
+      return false;
     }
+    int length = value.length();
+    int at = -1;
+    for (int pos = 0; pos < length; pos++) {
+      char c = value.charAt(pos);
+      if (!isPlain(c)) {
+        return VALIDATOR.isValid(value);
+      }
+      if (c == '@') {
+        at = pos;
+      }
+    }
+    if (at < 1 || at == length - 1 || value.charAt(length - 1) == '.') {
+      return false;
+    }
+    return isValidUser(value, at) && HostScanner.isValidDomainName(value, at + 1, length);
+  }
+
+  /**
+   * Checks that the first {@code length} characters of the value are dot separated words
+   */
+  private static boolean isValidUser(String value, int length) {
+    if (length > MAX_USERNAME_LENGTH || value.charAt(0) == '.' || value.charAt(length - 1) == '.') {
+      return false;
+    }
+    for (int pos = 0; pos < length; pos++) {
+      char c = value.charAt(pos);
+      if (c == '.') {
+        if (value.charAt(pos + 1) == '.') {
+          return false;
+        }
+      } else if (!isUserChar(c)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static boolean isUserChar(char c) {
+    switch (c) {
+      case '(':
+      case ')':
+      case '<':
+      case '>':
+      case '@':
+      case ',':
+      case ';':
+      case ':':
+        return false;
+      default:
+        return true;
+    }
+  }
+
+  private static boolean isPlain(char c) {
+    return c > ' ' && c < '\u007F' && c != '"' && c != '\\' && c != '[' && c != ']';
   }
 }
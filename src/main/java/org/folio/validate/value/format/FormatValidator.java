@@ -2,6 +2,16 @@ package org.folio.validate.value.format;
 
 public interface FormatValidator {
 
-  void validate(String value);
+  boolean isValid(String value);
 
+  /**
+   * @return message of the error of an invalid value
+   */
+  String getErrorMessage(String value);
+
+  default void validate(String value) {
+    if (!isValid(value)) {
+      throw new IllegalArgumentException(getErrorMessage(value));
+    }
+  }
 }
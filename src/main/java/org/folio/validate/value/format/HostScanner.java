@@ -0,0 +1,109 @@
+package org.folio.validate.value.format;
+
+import org.apache.commons.validator.routines.DomainValidator;
+
+/**
+ * Scanners of host names and IPv4 addresses in ASCII strings, which accept the same values as
+ * {@link DomainValidator} (local names not allowed) and
+ * {@link org.apache.commons.validator.routines.InetAddressValidator#isValidInet4Address(String)}.
+ * Top-level domains are checked with the list of {@link DomainValidator}.
+ */
+final class HostScanner {
+
+  private static final DomainValidator DOMAIN_VALIDATOR = DomainValidator.getInstance();
+
+  private static final int MAX_DOMAIN_LENGTH = 253;
+  private static final int MAX_LABEL_LENGTH = 63;
+  private static final int IPV4_SEGMENTS = 4;
+  private static final int IPV4_MAX_SEGMENT_LENGTH = 3;
+  private static final int IPV4_MAX_OCTET_VALUE = 255;
+
+  private HostScanner() {
+  }
+
+  /**
+   * Checks that characters from {@code from} to {@code to} of the value are a domain name of at least two labels,
+   * optionally followed by a dot, with a known top-level domain
+   */
+  static boolean isValidDomainName(String value, int from, int to) {
+    if (to - from > MAX_DOMAIN_LENGTH) {
+      return false;
+    }
+    int end = to > from && value.charAt(to - 1) == '.' ? to - 1 : to;
+    int labels = 0;
+    int labelStart = from;
+    for (int pos = from; pos < end; pos++) {
+      if (value.charAt(pos) == '.') {
+        if (!isValidLabel(value, labelStart, pos)) {
+          return false;
+        }
+        labels++;
+        labelStart = pos + 1;
+      }
+    }
+    if (labels == 0 || !isValidLabel(value, labelStart, end) || !isAlpha(value.charAt(labelStart))) {
+      return false;
+    }
+    return DOMAIN_VALIDATOR.isValidTld(value.substring(labelStart, end));
+  }
+
+  /**
+   * Checks that characters from {@code from} to {@code to} of the value are an IPv4 address in dotted decimal notation
+   */
+  static boolean isValidInet4Address(String value, int from, int to) {
+    int segments = 0;
+    int pos = from;
+    while (pos <= to) {
+      int segmentStart = pos;
+      int octet = 0;
+      while (pos < to && isDigit(value.charAt(pos))) {
+        octet = octet * 10 + value.charAt(pos) - '0';
+        pos++;
+        if (pos - segmentStart > IPV4_MAX_SEGMENT_LENGTH) {
+          return false;
+        }
+      }
+      int segmentLength = pos - segmentStart;
+      if (segmentLength == 0 || octet > IPV4_MAX_OCTET_VALUE
+        || (segmentLength > 1 && value.charAt(segmentStart) == '0')) {
+        return false;
+      }
+      segments++;
+      if (pos == to) {
+        return segments == IPV4_SEGMENTS;
+      }
+      if (value.charAt(pos) != '.' || segments == IPV4_SEGMENTS) {
+        return false;
+      }
+      pos++;
+    }
+    return false;
+  }
+
+  private static boolean isValidLabel(String value, int from, int to) {
+    int length = to - from;
+    if (length == 0 || length > MAX_LABEL_LENGTH
+      || !isAlphanumeric(value.charAt(from)) || !isAlphanumeric(value.charAt(to - 1))) {
+      return false;
+    }
+    for (int pos = from + 1; pos < to - 1; pos++) {
+      char c = value.charAt(pos);
+      if (!isAlphanumeric(c) && c != '-') {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  static boolean isAlpha(char c) {
+    return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+  }
+
+  static boolean isDigit(char c) {
+    return c >= '0' && c <= '9';
+  }
+
+  static boolean isAlphanumeric(char c) {
+    return isAlpha(c) || isDigit(c);
+  }
+}
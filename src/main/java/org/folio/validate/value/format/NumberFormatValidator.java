@@ -1,27 +1,106 @@
 package org.folio.validate.value.format;
 
-import org.apache.commons.validator.routines.RegexValidator;
-
+/**
+ * Accepts numbers in one of the formats:
+ * <pre>
+ *   -?\d+                              00000 | -00000
+ *   -?\d*[,|.]\d+                      #,0000 | 0,0000 | -#,0000 | -0,0000 | #.0000 | 0.0000 | -#.0000 | -0.0000
+ *   -?\d{1,3}(\s\d{3})+([,|.]\d+)?     0 000,## | 0 000.## | -0 000,## | 0 000.##
+ *   -?\d{1,3}(,\d{3})+(\.\d+)?         0,000.## | -0,000.##
+ * </pre>
+ * The value is checked in a single pass over its characters, without regular expressions.
+ */
 public class NumberFormatValidator implements FormatValidator {
 
   public static final String INVALID_FORMAT_MESSAGE = "Invalid Number format: %s";
 
-  private static final RegexValidator VALIDATOR;
+  private static final int GROUP_SIZE = 3;
 
-  static {
-    String[] formats = {
-      "(-?\\d+)",                              // 00000 | -00000
-      "(-?\\d*[,|\\.]\\d+)",                   // #,0000 | 0,0000 | -#,0000 | -0,0000 | #.0000 | 0.0000 | -#.0000 | -0.0000
-      "(-?\\d{1,3}(\\s\\d{3})+([,|\\.]\\d+)?)",// 0 000,## | 0 000.## | -0 000,## | 0 000.##
-      "(-?\\d{1,3}(,\\d{3})+(\\.\\d+)?)"       // 0,000.## | -0,000.##
-    };
-    VALIDATOR = new RegexValidator(formats);
+  @Override
+  public String getErrorMessage(String value) {
+    return String.format(INVALID_FORMAT_MESSAGE, value);
   }
 
   @Override
-  public void validate(String value) {
-    if (!VALIDATOR.isValid(value)) {
-      throw new IllegalArgumentException(String.format(INVALID_FORMAT_MESSAGE, value));
+  public boolean isValid(String value) {
+    if (value == null) {
+      return false;
+    }
+    int length = value.length();
+    int integerStart = length > 0 && value.charAt(0) == '-' ? 1 : 0;
+    int integerEnd = skipDigits(value, integerStart, length);
+    int integerDigits = integerEnd - integerStart;
+    if (integerEnd == length) {
+      return integerDigits > 0;
+    }
+    char separator = value.charAt(integerEnd);
+    if (isDecimalSeparator(separator) && isFraction(value, integerEnd + 1, length)) {
+      return true;
+    }
+    if (integerDigits == 0 || integerDigits > GROUP_SIZE) {
+      return false;
+    }
+    if (isWhitespace(separator)) {
+      return isGroupedNumber(value, integerEnd, length, true);
+    } else if (separator == ',') {
+      return isGroupedNumber(value, integerEnd, length, false);
+    }
+    return false;
+  }
+
+  /**
+   * Checks groups of three digits starting at {@code pos} and the optional fraction after them,
+   * groups are separated by whitespace, or by comma if {@code whitespaceGroups} is false
+   */
+  private static boolean isGroupedNumber(String value, int pos, int length, boolean whitespaceGroups) {
+    int groups = 0;
+    while (pos < length && isGroupSeparator(value.charAt(pos), whitespaceGroups)) {
+      int groupEnd = pos + 1 + GROUP_SIZE;
+      if (groupEnd > length || skipDigits(value, pos + 1, groupEnd) != groupEnd) {
+        return false;
+      }
+      pos = groupEnd;
+      groups++;
+    }
+    if (groups == 0) {
+      return false;
+    }
+    if (pos == length) {
+      return true;
+    }
+    char separator = value.charAt(pos);
+    boolean allowedSeparator = whitespaceGroups ? isDecimalSeparator(separator) : separator == '.';
+    return allowedSeparator && isFraction(value, pos + 1, length);
+  }
+
+  private static boolean isGroupSeparator(char c, boolean whitespaceGroups) {
+    return whitespaceGroups ? isWhitespace(c) : c == ',';
+  }
+
+  private static boolean isFraction(String value, int from, int length) {
+    return from < length && skipDigits(value, from, length) == length;
+  }
+
+  private static int skipDigits(String value, int from, int to) {
+    int pos = from;
+    while (pos < to && isDigit(value.charAt(pos))) {
+      pos++;
     }
+    return pos;
+  }
+
+  private static boolean isDigit(char c) {
+    return c >= '0' && c <= '9';
+  }
+
+  /**
+   * '|' is accepted as decimal separator, as it was by the "[,|\.]" character class of the former regular expressions
+   */
+  private static boolean isDecimalSeparator(char c) {
+    return c == '.' || c == ',' || c == '|';
+  }
+
+  private static boolean isWhitespace(char c) {
+    return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
   }
 }
@@ -7,9 +7,12 @@ public class TextFormatValidator implements FormatValidator {
   public static final String INVALID_FORMAT_MESSAGE = "Invalid Text format";
 
   @Override
-  public void validate(String value) {
-    if (StringUtils.isBlank(value)) {
-      throw new IllegalArgumentException(INVALID_FORMAT_MESSAGE);
-    }
+  public boolean isValid(String value) {
+    return StringUtils.isNotBlank(value);
+  }
+
+  @Override
+  public String getErrorMessage(String value) {
+    return INVALID_FORMAT_MESSAGE;
   }
 }
@@ -2,16 +2,157 @@ package org.folio.validate.value.format;
 
 import org.apache.commons.validator.routines.UrlValidator;
 
+/**
+ * Accepts the same values as {@link UrlValidator} with "http" and "https" schemes. URLs of printable ASCII characters
+ * without IPv6 hosts are checked in a single pass; other values, like internationalized domains,
+ * are passed to {@link UrlValidator}.
+ */
 public class URLFormatValidator implements FormatValidator {
 
   private static final String INVALID_FORMAT_MESSAGE = "Invalid URL: %s";
 
   private static final UrlValidator VALIDATOR = new UrlValidator(new String[] {"http", "https"});
 
+  private static final int MAX_PORT = 0xFFFF;
+
   @Override
-  public void validate(String value) {
-    if (!VALIDATOR.isValid(value)) {
-      throw new IllegalArgumentException(String.format(INVALID_FORMAT_MESSAGE, value));
+  public String getErrorMessage(String value) {
+    return String.format(INVALID_FORMAT_MESSAGE, value);
+  }
+
+  @Override
+  public boolean isValid(String value) {
+    if (value == null) {
+      return false;
+    }
+    int length = value.length();
+    for (int pos = 0; pos < length; pos++) {
+      if (!isPlain(value.charAt(pos))) {
+        return VALIDATOR.isValid(value);
+      }
+    }
+    int schemeEnd = indexOfAny(value, 0, length, ":/?#");
+    if (schemeEnd == 0 || schemeEnd == length || value.charAt(schemeEnd) != ':' || !isAllowedScheme(value, schemeEnd)) {
+      return false;
+    }
+    int authorityStart = schemeEnd + 1;
+    if (!value.startsWith("//", authorityStart)) {
+      return false;
+    }
+    authorityStart += 2;
+    int authorityEnd = indexOfAny(value, authorityStart, length, "/?#");
+    if (!isValidAuthority(value, authorityStart, authorityEnd)) {
+      return false;
+    }
+    // query of non-whitespace characters and fragment are always valid
+    return isValidPath(value, authorityEnd, indexOfAny(value, authorityEnd, length, "?#"));
+  }
+
+  private static boolean isAllowedScheme(String value, int schemeEnd) {
+    return value.regionMatches(true, 0, "http", 0, 4)
+      && (schemeEnd == 4 || (schemeEnd == 5 && (value.charAt(4) == 's' || value.charAt(4) == 'S')));
+  }
+
+  /**
+   * Checks authority of the form [userinfo@]host[:port], where host is a domain name or an IPv4 address
+   */
+  private static boolean isValidAuthority(String value, int from, int to) {
+    int hostStart = skipUserInfo(value, from, to);
+    int hostEnd = hostStart;
+    while (hostEnd < to && isHostChar(value.charAt(hostEnd))) {
+      hostEnd++;
+    }
+    int portEnd = hostEnd;
+    if (hostEnd < to && value.charAt(hostEnd) == ':') {
+      int port = 0;
+      for (portEnd = hostEnd + 1; portEnd < to && HostScanner.isDigit(value.charAt(portEnd)); portEnd++) {
+        port = Math.min(port * 10 + value.charAt(portEnd) - '0', MAX_PORT + 1);
+      }
+      if (port > MAX_PORT) {
+        return false;
+      }
+    }
+    return portEnd == to
+      && (HostScanner.isValidDomainName(value, hostStart, hostEnd)
+      || HostScanner.isValidInet4Address(value, hostStart, hostEnd));
+  }
+
+  /**
+   * @return position after "user[:password]@" if the authority starts with it, otherwise {@code from}
+   */
+  private static int skipUserInfo(String value, int from, int to) {
+    int pos = from;
+    while (pos < to && isUserInfoChar(value.charAt(pos))) {
+      pos++;
+    }
+    if (pos == from || pos == to) {
+      return from;
     }
+    if (value.charAt(pos) == ':') {
+      pos++;
+      while (pos < to && isUserInfoChar(value.charAt(pos))) {
+        pos++;
+      }
+    }
+    return pos < to && value.charAt(pos) == '@' ? pos + 1 : from;
+  }
+
+  /**
+   * Checks that path is empty or starts with slash, has allowed characters only, has no empty segments
+   * and doesn't go above the root with ".." segments
+   */
+  private static boolean isValidPath(String value, int from, int to) {
+    if (from == to) {
+      return true;
+    }
+    if (value.charAt(from) != '/') {
+      return false;
+    }
+    int depth = 0;
+    int segmentStart = from + 1;
+    for (int pos = from + 1; pos <= to; pos++) {
+      if (pos == to || value.charAt(pos) == '/') {
+        int segmentLength = pos - segmentStart;
+        if (segmentLength == 0 && pos < to) {
+          return false;
+        } else if (segmentLength == 2 && value.startsWith("..", segmentStart)) {
+          if (depth == 0) {
+            return false;
+          }
+          depth--;
+        } else if (segmentLength > 0 && !(segmentLength == 1 && value.charAt(segmentStart) == '.')) {
+          depth++;
+        }
+        segmentStart = pos + 1;
+      } else if (!isPathChar(value.charAt(pos))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static int indexOfAny(String value, int from, int to, String chars) {
+    int pos = from;
+    while (pos < to && chars.indexOf(value.charAt(pos)) < 0) {
+      pos++;
+    }
+    return pos;
+  }
+
+  private static boolean isHostChar(char c) {
+    return HostScanner.isAlphanumeric(c) || c == '-' || c == '.';
+  }
+
+  private static boolean isUserInfoChar(char c) {
+    return HostScanner.isAlphanumeric(c) || (c >= '%' && c <= '.')
+      || c == '_' || c == '~' || c == '!' || c == '$' || c == ';' || c == '=';
+  }
+
+  private static boolean isPathChar(char c) {
+    return HostScanner.isAlphanumeric(c) || "-_:@&?=+,.!~*'%$;()".indexOf(c) >= 0;
+  }
+
+  private static boolean isPlain(char c) {
+    return c > ' ' && c < '\u007F' && c != '[' && c != ']';
   }
 }
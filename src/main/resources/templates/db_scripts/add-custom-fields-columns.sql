@@ -0,0 +1,30 @@
+ALTER TABLE custom_fields
+  ADD COLUMN IF NOT EXISTS ref_id text,
+  ADD COLUMN IF NOT EXISTS field_order integer,
+  ADD COLUMN IF NOT EXISTS entity_type text;
+
+CREATE OR REPLACE FUNCTION set_custom_fields_columns()
+RETURNS TRIGGER AS $$
+BEGIN
+  NEW.ref_id = NEW.jsonb->>'refId';
+  NEW.field_order = (NEW.jsonb->>'order')::integer;
+  NEW.entity_type = NEW.jsonb->>'entityType';
+  RETURN NEW;
+END;
+$$ language 'plpgsql';
+
+-- BEFORE triggers fire in alphabetical order of their names, the name of this trigger sorts after
+-- update_ref_id_trigger, so the columns get the final refId
+DROP TRIGGER IF EXISTS update_stored_columns_trigger ON custom_fields;
+CREATE TRIGGER update_stored_columns_trigger BEFORE INSERT OR UPDATE ON custom_fields
+  FOR EACH ROW EXECUTE PROCEDURE set_custom_fields_columns();
+
+UPDATE custom_fields SET
+  ref_id = jsonb->>'refId',
+  field_order = (jsonb->>'order')::integer,
+  entity_type = jsonb->>'entityType'
+WHERE ref_id IS DISTINCT FROM jsonb->>'refId'
+  OR field_order IS DISTINCT FROM (jsonb->>'order')::integer
+  OR entity_type IS DISTINCT FROM jsonb->>'entityType';
+
+CREATE INDEX IF NOT EXISTS custom_fields_entity_type_idx ON custom_fields (entity_type);
@@ -0,0 +1,8 @@
+CREATE TABLE IF NOT EXISTS custom_fields_order_counter (
+  id boolean PRIMARY KEY DEFAULT true CHECK (id),
+  last_order integer NOT NULL
+);
+
+INSERT INTO custom_fields_order_counter AS counter (id, last_order)
+SELECT true, COALESCE(MAX(field_order), 0) FROM custom_fields
+ON CONFLICT (id) DO UPDATE SET last_order = EXCLUDED.last_order;
@@ -0,0 +1 @@
+CREATE INDEX IF NOT EXISTS custom_fields_order_idx ON custom_fields (field_order);
@@ -0,0 +1,10 @@
+CREATE TABLE IF NOT EXISTS custom_fields_ref_id_counter (
+  base_name text PRIMARY KEY,
+  last_number integer NOT NULL
+);
+
+INSERT INTO custom_fields_ref_id_counter AS counter (base_name, last_number)
+SELECT regexp_replace(ref_id, '_[1-9][0-9]*$', ''), MAX(COALESCE(substring(ref_id FROM '_([1-9][0-9]*)$')::integer, 1))
+FROM custom_fields
+GROUP BY 1
+ON CONFLICT (base_name) DO UPDATE SET last_number = GREATEST(counter.last_number, EXCLUDED.last_number);
@@ -0,0 +1,22 @@
+-- Custom fields saved concurrently before this version could get the same refId. Values of custom fields in records
+-- of other modules are stored by refId, so renaming a duplicated refId here would detach or mix up their values.
+-- The upgrade fails instead, listing the duplicated refIds and the ids of their custom fields, see "Duplicated refIds"
+-- in README for the manual fix.
+DO $$
+DECLARE
+  duplicates text;
+BEGIN
+  SELECT string_agg(ref_id || ' (' || ids || ')', ', ') INTO duplicates
+  FROM (
+    SELECT ref_id, string_agg(id::text, ', ' ORDER BY id) AS ids
+    FROM custom_fields
+    GROUP BY ref_id
+    HAVING COUNT(*) > 1
+  ) AS duplicated;
+  IF duplicates IS NOT NULL THEN
+    RAISE EXCEPTION 'Custom fields share refIds, the unique refId index can''t be created: %', duplicates
+      USING HINT = 'See "Duplicated refIds" in README of mod-custom-fields';
+  END IF;
+END $$;
+
+CREATE UNIQUE INDEX IF NOT EXISTS custom_fields_ref_id_idx_unique ON custom_fields (ref_id);
@@ -0,0 +1,39 @@
+-- createdByUsername is kept from the old custom field, like in create_custom_fields_table.sql. Only the username
+-- backfill of the module, which enables custom_fields.backfill_username in its transaction, can set
+-- createdByUsername of a custom field whose creator was unknown.
+CREATE OR REPLACE FUNCTION set_custom_fields_md_json()
+    RETURNS TRIGGER
+AS $$
+ DECLARE
+    createdDate timestamp WITH TIME ZONE;
+    createdBy text ;
+    updatedDate timestamp WITH TIME ZONE;
+    updatedBy text ;
+    injectedMetadata text;
+    createdByUsername text;
+    updatedByUsername text;
+ BEGIN
+   createdBy = OLD.jsonb->'metadata'->>'createdByUserId';
+   createdDate = OLD.jsonb->'metadata'->>'createdDate';
+   createdByUsername = OLD.jsonb->'metadata'->>'createdByUsername';
+   if current_setting('custom_fields.backfill_username', true) = 'on'
+       AND COALESCE(createdByUsername, 'undefined') = 'undefined'
+     then createdByUsername = NEW.jsonb->'metadata'->>'createdByUsername';
+   end if;
+   updatedBy = NEW.jsonb->'metadata'->>'updatedByUserId';
+   updatedDate = NEW.jsonb->'metadata'->>'updatedDate';
+   updatedByUsername = NEW.jsonb->'metadata'->>'updatedByUsername';
+   if createdBy ISNULL then     createdBy = 'undefined';   end if;
+   if updatedBy ISNULL then     updatedBy = 'undefined';   end if;
+   if createdByUsername ISNULL then     createdByUsername = 'undefined';   end if;
+   if updatedByUsername ISNULL then     updatedByUsername = 'undefined';   end if;
+   if createdDate IS NOT NULL
+       then injectedMetadata = '{"createdDate":"'||to_char(createdDate,'YYYY-MM-DD"T"HH24:MI:SS.MS')||'" , "createdByUserId":"'||createdBy||'" , "createdByUsername":"'||createdByUsername||'", "updatedDate":"'||to_char(updatedDate,'YYYY-MM-DD"T"HH24:MI:SS.MSOF')||'" , "updatedByUserId":"'||updatedBy||'" , "updatedByUsername":"'|| updatedByUsername||'"}';
+       NEW.jsonb = jsonb_set(NEW.jsonb, '{metadata}' ,  injectedMetadata::jsonb , false);
+   else
+     NEW.jsonb = NEW.jsonb;
+   end if;
+ RETURN NEW;
+ END;
+$$
+language 'plpgsql';
@@ -0,0 +1,11 @@
+CREATE OR REPLACE FUNCTION notify_custom_fields_changed()
+RETURNS TRIGGER AS $$
+BEGIN
+  PERFORM pg_notify('custom_fields_changed', TG_TABLE_SCHEMA);
+  RETURN NULL;
+END;
+$$ language 'plpgsql';
+
+DROP TRIGGER IF EXISTS notify_custom_fields_changed_trigger ON custom_fields;
+CREATE TRIGGER notify_custom_fields_changed_trigger AFTER INSERT OR UPDATE OR DELETE OR TRUNCATE ON custom_fields
+  FOR EACH STATEMENT EXECUTE PROCEDURE notify_custom_fields_changed();
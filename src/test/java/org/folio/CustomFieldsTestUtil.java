@@ -6,6 +6,8 @@ import static com.github.tomakehurst.wiremock.client.WireMock.stubFor;
 import static com.github.tomakehurst.wiremock.client.WireMock.urlPathEqualTo;
 
 import static org.folio.repository.CustomFieldsConstants.CUSTOM_FIELDS_TABLE;
+import static org.folio.repository.CustomFieldsConstants.ORDER_COUNTER_TABLE;
+import static org.folio.repository.CustomFieldsConstants.REF_ID_COUNTER_TABLE;
 import static org.folio.test.util.DBTestUtil.deleteFromTable;
 import static org.folio.test.util.DBTestUtil.getAll;
 import static org.folio.test.util.TestUtil.readFile;
@@ -26,9 +28,11 @@ public class CustomFieldsTestUtil {
   public static final String USER2_ID = "22222222-2222-2222-2222-222222222222";
   public static final String USER3_ID = "33333333-3333-3333-3333-333333333333";
   public static final String USER4_ID = "44444444-4444-4444-4444-444444444444";
+  public static final String USER5_ID = "55555555-5555-5555-5555-555555555555";
 
   public static final Header USER1_HEADER = createTokenHeader("u1", USER1_ID);
   public static final Header USER2_HEADER = createTokenHeader("u2", USER2_ID);
+  public static final Header USER5_HEADER = createTokenHeader("u5", USER5_ID);
 
   public static final String STUB_FIELD_ID = "11111111-1111-1111-a111-111111111111";
   public static final String CUSTOM_FIELDS_PATH = "/custom-fields";
@@ -39,6 +43,8 @@ public class CustomFieldsTestUtil {
 
   public static void deleteAllCustomFields(Vertx vertx) {
     deleteFromTable(vertx, CUSTOM_FIELDS_TABLE);
+    deleteFromTable(vertx, REF_ID_COUNTER_TABLE);
+    deleteFromTable(vertx, ORDER_COUNTER_TABLE);
   }
 
   public static List<CustomField> getAllCustomFields(Vertx vertx) {
@@ -60,6 +66,13 @@ public class CustomFieldsTestUtil {
           .withBody(readFile("users/mock_user_2.json"))
         ));
 
+    stubFor(
+      get(urlPathEqualTo(USERS_PATH + "/" + USER5_ID))
+        .willReturn(aResponse()
+          .withStatus(200)
+          .withBody(readFile("users/mock_user_5.json"))
+        ));
+
     stubFor(
       get(urlPathEqualTo(USERS_PATH + "/" + USER3_ID))
         .willReturn(aResponse()
@@ -77,6 +90,10 @@ public class CustomFieldsTestUtil {
     return CUSTOM_FIELDS_PATH + "/" + id;
   }
 
+  public static String refIdResourcePath(String refId) {
+    return CUSTOM_FIELDS_PATH + "/refId/" + refId;
+  }
+
   public static String itemStatResourcePath(String id) {
     return itemResourcePath(id) + "/stats";
   }
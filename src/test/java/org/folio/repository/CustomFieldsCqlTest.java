@@ -0,0 +1,96 @@
+package org.folio.repository;
+
+import static org.folio.repository.ConnectOptionsUtil.connectOptions;
+import static org.folio.repository.CustomFieldsConstants.CUSTOM_FIELDS_TABLE;
+import static org.folio.test.util.TestUtil.STUB_TENANT;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.not;
+import static org.junit.Assert.assertEquals;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import javax.ws.rs.BadRequestException;
+
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+import io.vertx.pgclient.PgConnection;
+import io.vertx.sqlclient.Row;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import org.folio.rest.persist.PostgresClient;
+import org.folio.test.util.TestBase;
+
+@RunWith(VertxUnitRunner.class)
+public class CustomFieldsCqlTest extends TestBase {
+
+  @Test
+  public void shouldTranslateEntityTypeAndSortByOrderToColumns() {
+    CustomFieldsCql cql = CustomFieldsCql.translate("entityType==user sortby order/sort.descending");
+    assertEquals("custom_fields.entity_type = 'user'", cql.getWhere());
+    assertEquals("custom_fields.field_order DESC", cql.getOrderBy());
+  }
+
+  @Test
+  public void shouldTranslateOtherIndexesToJsonb() {
+    CustomFieldsCql cql = CustomFieldsCql.translate("refId==ref* and name=Department sortby name");
+    assertThat(cql.getWhere(), not(containsString("ref_id")));
+    assertThat(cql.getWhere(), containsString("jsonb"));
+    assertThat(cql.getOrderBy(), containsString("jsonb"));
+  }
+
+  @Test(expected = BadRequestException.class)
+  public void shouldFailOnInvalidQuery() {
+    CustomFieldsCql.translate("entityType==user and");
+  }
+
+  @Test
+  public void shouldUseEntityTypeIndex() throws Exception {
+    assertThat(explain("entityType==user"), containsString("custom_fields_entity_type_idx"));
+  }
+
+  @Test
+  public void shouldUseRefIdIndex() throws Exception {
+    assertThat(explain("refId==department"), containsString("custom_fields_ref_id_idx_unique"));
+  }
+
+  @Test
+  public void shouldUseOrderIndexForSort() throws Exception {
+    assertThat(explain("cql.allRecords=1 sortby order"), containsString("custom_fields_order_idx"));
+  }
+
+  /**
+   * Returns the plan of the select by the query. Sequential scans are disabled, the table of the test is small,
+   * so the database would scan it even if it could use an index.
+   */
+  private String explain(String query) throws Exception {
+    CustomFieldsCql cql = CustomFieldsCql.translate(query);
+    String sql = "EXPLAIN SELECT * FROM " + PostgresClient.convertToPsqlStandard(STUB_TENANT) + "."
+      + CUSTOM_FIELDS_TABLE + " WHERE " + cql.getWhere()
+      + (cql.getOrderBy().isEmpty() ? "" : " ORDER BY " + cql.getOrderBy());
+    CompletableFuture<String> plan = new CompletableFuture<>();
+    PgConnection.connect(vertx, connectOptions(PostgresClient.getInstance(vertx, STUB_TENANT).getConnectionConfig()),
+      connected -> {
+        if (connected.failed()) {
+          plan.completeExceptionally(connected.cause());
+          return;
+        }
+        PgConnection connection = connected.result();
+        connection.query("SET enable_seqscan = off").execute(set ->
+          connection.query(sql).execute(explained -> {
+            connection.close();
+            if (set.failed() || explained.failed()) {
+              plan.completeExceptionally(set.failed() ? set.cause() : explained.cause());
+              return;
+            }
+            StringBuilder lines = new StringBuilder();
+            for (Row row : explained.result()) {
+              lines.append(row.getString(0)).append('\n');
+            }
+            plan.complete(lines.toString());
+          }));
+      });
+    return plan.get(10, TimeUnit.SECONDS);
+  }
+}
@@ -0,0 +1,53 @@
+package org.folio.repository;
+
+import static org.folio.repository.CustomFieldsConstants.CUSTOM_FIELDS_TABLE;
+import static org.folio.test.util.TestUtil.STUB_TENANT;
+
+import java.util.UUID;
+
+import io.vertx.ext.unit.Async;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+import io.vertx.sqlclient.Tuple;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import org.folio.rest.persist.PostgresClient;
+import org.folio.test.util.TestBase;
+
+@RunWith(VertxUnitRunner.class)
+public class PrimaryDatabaseTest extends TestBase {
+
+  private static final String COUNT_PREPARED_STATEMENTS =
+    "SELECT COUNT(*) FROM pg_prepared_statements WHERE statement = $1";
+
+  private PrimaryDatabase database;
+
+  @Before
+  public void setUp() {
+    database = new PrimaryDatabase(vertx, 1);
+  }
+
+  @After
+  public void tearDown() {
+    database.close();
+  }
+
+  @Test
+  public void shouldPrepareRepeatedStatementOnce(TestContext context) {
+    String sql = "SELECT COUNT(*) FROM " + PostgresClient.convertToPsqlStandard(STUB_TENANT) + "."
+      + CUSTOM_FIELDS_TABLE + " WHERE id <> $1";
+    Tuple parameters = Tuple.of(UUID.randomUUID());
+    Async async = context.async();
+    database.execute(STUB_TENANT, sql, parameters)
+      .compose(rowSet -> database.execute(STUB_TENANT, sql, parameters))
+      .compose(rowSet -> database.execute(STUB_TENANT, COUNT_PREPARED_STATEMENTS, Tuple.of(sql)))
+      .onComplete(result -> {
+        context.assertTrue(result.succeeded());
+        context.assertEquals(1L, result.result().iterator().next().getLong(0));
+        async.complete();
+      });
+  }
+}
@@ -0,0 +1,56 @@
+package org.folio.repository;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TestRule;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import org.folio.test.junit.TestStartLoggingRule;
+
+public class ReadReplicaTest {
+
+  private static final String TENANT = "diku";
+  private static final String OTHER_TENANT = "other";
+
+  @Rule
+  public TestRule watcher = TestStartLoggingRule.instance();
+
+  @Test
+  public void shouldReadFromPrimaryIfReplicaIsNotConfigured() {
+    ReadReplica replica = readReplica("", 10);
+    assertFalse(replica.isEnabled());
+    assertFalse(replica.readsFromReplica(TENANT));
+  }
+
+  @Test
+  public void shouldReadFromReplicaIfNothingWritten() {
+    ReadReplica replica = readReplica("localhost", 10);
+    assertTrue(replica.isEnabled());
+    assertTrue(replica.readsFromReplica(TENANT));
+  }
+
+  @Test
+  public void shouldReadFromPrimaryAfterWriteOfTenant() {
+    ReadReplica replica = readReplica("localhost", 10);
+    replica.recordWrite(TENANT);
+    assertFalse(replica.readsFromReplica(TENANT));
+    assertTrue(replica.readsFromReplica(OTHER_TENANT));
+  }
+
+  @Test
+  public void shouldReadFromReplicaAfterReadYourWritesPeriod() {
+    ReadReplica replica = readReplica("localhost", 0);
+    replica.recordWrite(TENANT);
+    assertTrue(replica.readsFromReplica(TENANT));
+  }
+
+  private ReadReplica readReplica(String host, long readYourWritesSeconds) {
+    ReadReplica replica = new ReadReplica();
+    ReflectionTestUtils.setField(replica, "host", host);
+    ReflectionTestUtils.setField(replica, "readYourWritesSeconds", readYourWritesSeconds);
+    return replica;
+  }
+}
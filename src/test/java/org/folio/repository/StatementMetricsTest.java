@@ -0,0 +1,42 @@
+package org.folio.repository;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TestRule;
+
+import org.folio.test.junit.TestStartLoggingRule;
+
+public class StatementMetricsTest {
+
+  @Rule
+  public TestRule watcher = TestStartLoggingRule.instance();
+
+  private final StatementMetrics metrics = new StatementMetrics();
+
+  @Test
+  public void shouldCountExecutionsAndLatencyPerStatement() {
+    metrics.record("selectById", TimeUnit.MILLISECONDS.toNanos(2));
+    metrics.record("selectById", TimeUnit.MILLISECONDS.toNanos(4));
+    metrics.record("deleteCustomField", TimeUnit.MILLISECONDS.toNanos(1));
+
+    Map<String, StatementMetrics.Stats> stats = metrics.stats();
+    assertEquals(2, stats.size());
+    StatementMetrics.Stats selectStats = stats.get("selectById");
+    assertEquals(2, selectStats.getCount());
+    assertEquals(TimeUnit.MILLISECONDS.toNanos(6), selectStats.getTotalNanos());
+    assertEquals(TimeUnit.MILLISECONDS.toNanos(4), selectStats.getMaxNanos());
+    assertEquals(3.0, selectStats.getMeanMillis(), 0.0001);
+    assertEquals(1, stats.get("deleteCustomField").getCount());
+  }
+
+  @Test
+  public void shouldReturnEmptyStatsIfNothingExecuted() {
+    assertTrue(metrics.stats().isEmpty());
+  }
+}
@@ -1,8 +1,14 @@
 package org.folio.rest.impl;
 
+import static com.github.tomakehurst.wiremock.client.WireMock.exactly;
+import static com.github.tomakehurst.wiremock.client.WireMock.getRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathEqualTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.verify;
 import static org.apache.http.HttpStatus.SC_BAD_REQUEST;
 import static org.apache.http.HttpStatus.SC_CREATED;
 import static org.apache.http.HttpStatus.SC_NOT_FOUND;
+import static org.apache.http.HttpStatus.SC_NOT_MODIFIED;
+import static org.apache.http.HttpStatus.SC_OK;
 import static org.apache.http.HttpStatus.SC_UNAUTHORIZED;
 import static org.apache.http.HttpStatus.SC_UNPROCESSABLE_ENTITY;
 import static org.folio.CustomFieldsTestUtil.CUSTOM_FIELDS_PATH;
@@ -13,12 +19,16 @@ import static org.folio.CustomFieldsTestUtil.USER2_HEADER;
 import static org.folio.CustomFieldsTestUtil.USER2_ID;
 import static org.folio.CustomFieldsTestUtil.USER3_ID;
 import static org.folio.CustomFieldsTestUtil.USER4_ID;
+import static org.folio.CustomFieldsTestUtil.USER5_HEADER;
+import static org.folio.CustomFieldsTestUtil.USER5_ID;
+import static org.folio.CustomFieldsTestUtil.USERS_PATH;
 import static org.folio.CustomFieldsTestUtil.deleteAllCustomFields;
 import static org.folio.CustomFieldsTestUtil.getAllCustomFields;
 import static org.folio.CustomFieldsTestUtil.itemOptionStatResourcePath;
 import static org.folio.CustomFieldsTestUtil.itemResourcePath;
 import static org.folio.CustomFieldsTestUtil.itemStatResourcePath;
 import static org.folio.CustomFieldsTestUtil.mockUserRequests;
+import static org.folio.CustomFieldsTestUtil.refIdResourcePath;
 import static org.folio.test.util.TestUtil.readFile;
 import static org.folio.test.util.TestUtil.readJsonFile;
 import static org.folio.test.util.TokenTestUtil.createTokenHeader;
@@ -37,9 +47,17 @@ import static org.junit.Assert.assertTrue;
 
 import java.io.IOException;
 import java.net.URISyntaxException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javax.ws.rs.core.HttpHeaders;
 
 import org.folio.okapi.common.XOkapiHeaders;
 import org.folio.rest.jaxrs.model.CustomField;
@@ -55,7 +73,10 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 
 import io.restassured.http.Header;
+import io.restassured.response.ExtractableResponse;
+import io.restassured.response.Response;
 import io.vertx.core.json.Json;
+import io.vertx.core.json.JsonObject;
 import io.vertx.ext.unit.junit.VertxUnitRunner;
 
 @RunWith(VertxUnitRunner.class)
@@ -82,6 +103,16 @@ public class CustomFieldsImplTest extends TestBase {
     assertEquals("u1", noteTypeMetadata.getCreatedByUsername());
   }
 
+  @Test
+  public void shouldRequestUserOnceOnConsecutivePosts() throws IOException, URISyntaxException {
+    postWithStatus(CUSTOM_FIELDS_PATH, readFile("fields/post/postCustomField.json"), SC_CREATED, USER5_HEADER);
+    CustomField customField = postWithStatus(CUSTOM_FIELDS_PATH, readFile("fields/post/postCustomField2.json"),
+      SC_CREATED, USER5_HEADER).as(CustomField.class);
+
+    assertEquals("u5", customField.getMetadata().getCreatedByUsername());
+    verify(exactly(1), getRequestedFor(urlPathEqualTo(USERS_PATH + "/" + USER5_ID)));
+  }
+
   @Test
   public void postTextboxCustomFieldWithEmptyFormat() throws IOException, URISyntaxException {
     CustomField customField = createCustomField(readFile("fields/post/textbox/postTextBoxShort.json"));
@@ -127,6 +158,53 @@ public class CustomFieldsImplTest extends TestBase {
   }
 
 
+  @Test
+  public void shouldCreateDifferentRefIdsOnConcurrentPostWithSameName() throws Exception {
+    String postBody = readFile("fields/post/postCustomField.json");
+    ExecutorService executor = Executors.newFixedThreadPool(5);
+    try {
+      List<Future<CustomField>> results = new ArrayList<>();
+      for (int i = 0; i < 5; i++) {
+        results.add(executor.submit(() -> createCustomField(postBody)));
+      }
+      Set<String> refIds = new HashSet<>();
+      for (Future<CustomField> result : results) {
+        refIds.add(result.get().getRefId());
+      }
+      assertEquals(new HashSet<>(Arrays.asList("department", "department_2", "department_3", "department_4",
+        "department_5")), refIds);
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  public void shouldCreateDifferentOrdersOnConcurrentPost() throws Exception {
+    String postBody = readFile("fields/post/postCustomField.json");
+    ExecutorService executor = Executors.newFixedThreadPool(5);
+    try {
+      List<Future<CustomField>> results = new ArrayList<>();
+      for (int i = 0; i < 5; i++) {
+        results.add(executor.submit(() -> createCustomField(postBody)));
+      }
+      Set<Integer> orders = new HashSet<>();
+      for (Future<CustomField> result : results) {
+        orders.add(result.get().getOrder());
+      }
+      assertEquals(new HashSet<>(Arrays.asList(1, 2, 3, 4, 5)), orders);
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  public void shouldNotReuseRefIdOfDeletedField() throws IOException, URISyntaxException {
+    CustomField customField = createCustomField(readFile("fields/post/postCustomField.json"));
+    deleteWithNoContent(itemResourcePath(customField.getId()));
+
+    assertEquals("department_2", createCustomField(readFile("fields/post/postCustomField.json")).getRefId());
+  }
+
   @Test
   public void shouldCreateCustomFieldWithLastOrderOnPost() throws IOException, URISyntaxException {
     CustomField customField1 = createCustomField(readFile("fields/post/postCustomField.json"));
@@ -275,6 +353,76 @@ public class CustomFieldsImplTest extends TestBase {
     assertEquals("Provide a department", fields.getCustomFields().get(0).getHelpText());
   }
 
+  @Test
+  public void shouldReturnOnlyRequestedFields() throws IOException, URISyntaxException {
+    createFields();
+    String resourcePath = CUSTOM_FIELDS_PATH + "?fields=id,refId,name,type";
+    JsonObject fields = new JsonObject(getWithOk(resourcePath).asString());
+    assertEquals(2, (int) fields.getInteger("totalRecords"));
+    JsonObject field = fields.getJsonArray("customFields").getJsonObject(0);
+    assertEquals(new HashSet<>(Arrays.asList("id", "refId", "name", "type")), field.fieldNames());
+    assertEquals("department", field.getString("refId"));
+    assertEquals("Department", field.getString("name"));
+    assertEquals("SINGLE_CHECKBOX", field.getString("type"));
+  }
+
+  @Test
+  public void shouldReturnTotalRecordsWithRequestedFieldsOnPageAfterLast() throws IOException, URISyntaxException {
+    createFields();
+    String resourcePath = CUSTOM_FIELDS_PATH + "?fields=id,name&offset=5";
+    CustomFieldCollection fields = getWithOk(resourcePath).as(CustomFieldCollection.class);
+    assertEquals(0, fields.getCustomFields().size());
+    assertEquals(2, (int) fields.getTotalRecords());
+  }
+
+  @Test
+  public void shouldReturnFieldsAfterOrder() throws IOException, URISyntaxException {
+    createFields();
+    CustomFieldCollection fields = getWithOk(CUSTOM_FIELDS_PATH + "?after=1").as(CustomFieldCollection.class);
+    assertEquals(1, fields.getCustomFields().size());
+    assertEquals("Expiration Date", fields.getCustomFields().get(0).getName());
+    assertEquals(2, (int) fields.getCustomFields().get(0).getOrder());
+    assertEquals(2, (int) fields.getTotalRecords());
+  }
+
+  @Test
+  public void shouldReturnNotCalculatedTotalRecordsIfNone() throws IOException, URISyntaxException {
+    createFields();
+    String resourcePath = CUSTOM_FIELDS_PATH + "?after=0&totalRecords=none";
+    CustomFieldCollection fields = getWithOk(resourcePath).as(CustomFieldCollection.class);
+    assertEquals(2, fields.getCustomFields().size());
+    assertEquals(-1, (int) fields.getTotalRecords());
+  }
+
+  @Test
+  public void shouldReturnExactTotalRecordsOnLastPageIfEstimated() throws IOException, URISyntaxException {
+    createFields();
+    String resourcePath = CUSTOM_FIELDS_PATH + "?totalRecords=estimated";
+    CustomFieldCollection fields = getWithOk(resourcePath).as(CustomFieldCollection.class);
+    assertEquals(2, fields.getCustomFields().size());
+    assertEquals(2, (int) fields.getTotalRecords());
+  }
+
+  @Test
+  public void shouldReturn400OnAfterWithSort() {
+    String resourcePath = CUSTOM_FIELDS_PATH + "?after=1&query=cql.allRecords=1 sortby name";
+    String error = getWithStatus(resourcePath, SC_BAD_REQUEST).asString();
+    assertThat(error, containsString("Query with 'after' parameter can't have sortby"));
+  }
+
+  @Test
+  public void shouldReturn400OnAfterWithOffset() {
+    String resourcePath = CUSTOM_FIELDS_PATH + "?after=1&offset=1";
+    String error = getWithStatus(resourcePath, SC_BAD_REQUEST).asString();
+    assertThat(error, containsString("Query with 'after' parameter can't have offset"));
+  }
+
+  @Test
+  public void shouldReturn400OnUnknownField() {
+    String error = getWithStatus(CUSTOM_FIELDS_PATH + "?fields=id,color", SC_BAD_REQUEST).asString();
+    assertThat(error, containsString("Unknown properties of custom field in 'fields': color"));
+  }
+
   @Test
   public void shouldReturn400OnInvalidLimit() {
     String error = getWithStatus(CUSTOM_FIELDS_PATH + "?limit=-1", SC_BAD_REQUEST).asString();
@@ -301,12 +449,56 @@ public class CustomFieldsImplTest extends TestBase {
     assertEquals(CustomField.Type.SINGLE_CHECKBOX, actual.getType());
   }
 
+  @Test
+  public void shouldReturnNotModifiedIfETagMatches() throws IOException, URISyntaxException {
+    CustomField customField = createCustomField(readFile("fields/post/postCustomField.json"));
+
+    String etag = getWithOk(CUSTOM_FIELDS_PATH).header(HttpHeaders.ETAG);
+    assertNotNull(etag);
+    assertEquals(etag, getWithOk(itemResourcePath(customField.getId())).header(HttpHeaders.ETAG));
+
+    Header ifNoneMatch = new Header(HttpHeaders.IF_NONE_MATCH, etag);
+    getWithStatus(CUSTOM_FIELDS_PATH, SC_NOT_MODIFIED, ifNoneMatch);
+    getWithStatus(itemResourcePath(customField.getId()), SC_NOT_MODIFIED, ifNoneMatch);
+  }
+
+  @Test
+  public void shouldReturnFieldsWithNewETagIfFieldsChanged() throws IOException, URISyntaxException {
+    createCustomField(readFile("fields/post/postCustomField.json"));
+    String etag = getWithOk(CUSTOM_FIELDS_PATH).header(HttpHeaders.ETAG);
+
+    createCustomField(readFile("fields/post/textbox/postTextBoxShort.json"));
+
+    Header ifNoneMatch = new Header(HttpHeaders.IF_NONE_MATCH, etag);
+    ExtractableResponse<Response> response = getWithStatus(CUSTOM_FIELDS_PATH, SC_OK, ifNoneMatch);
+    assertNotEquals(etag, response.header(HttpHeaders.ETAG));
+    assertEquals(2, response.as(CustomFieldCollection.class).getCustomFields().size());
+  }
+
   @Test
   public void shouldReturn404OnMissingId() {
     String error = getWithStatus(itemResourcePath(STUB_FIELD_ID), SC_NOT_FOUND).asString();
     assertThat(error, containsString("CustomField not found by id"));
   }
 
+  @Test
+  public void shouldReturnFieldByRefId() throws IOException, URISyntaxException {
+    createCustomField(readFile("fields/post/postCustomField.json"));
+    CustomField customField = createCustomField(readFile("fields/post/postCustomField.json"));
+
+    CustomField actual = getWithOk(refIdResourcePath("department_2")).as(CustomField.class);
+
+    assertEquals(customField.getId(), actual.getId());
+    assertEquals("department_2", actual.getRefId());
+    assertEquals("Department", actual.getName());
+  }
+
+  @Test
+  public void shouldReturn404OnMissingRefId() {
+    String error = getWithStatus(refIdResourcePath("department"), SC_NOT_FOUND).asString();
+    assertThat(error, containsString("CustomField not found by refId: department"));
+  }
+
   @Test
   public void getCustomFieldsById() throws IOException, URISyntaxException {
     CustomField customField = createCustomField(readFile("fields/post/postCustomField.json"));
@@ -536,6 +728,23 @@ public class CustomFieldsImplTest extends TestBase {
     assertNotEquals(field2Id, secondFieldUpdated.getId());
   }
 
+  @Test
+  public void shouldCreateDifferentRefIdsForFieldsWithSameNameOnCollectionPut() throws IOException, URISyntaxException {
+    final CustomField field1 = createCustomField(readFile("fields/post/postCustomField.json"));
+    final CustomField field2 = Json.decodeValue(readFile("fields/post/postCustomField.json"), CustomField.class);
+    final CustomField field3 = Json.decodeValue(readFile("fields/post/postCustomField.json"), CustomField.class);
+
+    CustomFieldCollection request = new CustomFieldCollection().withCustomFields(Arrays.asList(field1, field2, field3));
+    putWithNoContent(CUSTOM_FIELDS_PATH, Json.encode(request), USER2_HEADER);
+
+    List<CustomField> customFieldsAfterUpdate = getAllCustomFields(vertx);
+    customFieldsAfterUpdate.sort(Comparator.comparingInt(CustomField::getOrder));
+    assertEquals(3, customFieldsAfterUpdate.size());
+    assertEquals("department", customFieldsAfterUpdate.get(0).getRefId());
+    assertEquals(new HashSet<>(Arrays.asList("department_2", "department_3")), new HashSet<>(Arrays.asList(
+      customFieldsAfterUpdate.get(1).getRefId(), customFieldsAfterUpdate.get(2).getRefId())));
+  }
+
   @Test
   public void shouldReturn422WhenChangedTypeOnPutCollection() throws IOException, URISyntaxException {
     final CustomField field1 = createCustomField(readFile("fields/post/postCustomField.json"));
@@ -584,6 +793,16 @@ public class CustomFieldsImplTest extends TestBase {
     assertEquals(2, (int) fields.getCustomFields().get(1).getOrder());
   }
 
+  @Test
+  public void shouldCreateCustomFieldWithLastOrderAfterDelete() throws IOException, URISyntaxException {
+    CustomField customFieldOne = createCustomField(readFile("fields/post/postCustomField.json"));
+    createCustomField(readFile("fields/post/postCustomFieldOrder2.json"));
+
+    deleteWithNoContent(itemResourcePath(customFieldOne.getId()));
+
+    assertEquals(2, (int) createCustomField(readFile("fields/post/postCustomFieldOrder3.json")).getOrder());
+  }
+
   @Test
   public void deleteCustomFieldAndReorderLast1212() throws IOException, URISyntaxException {
     createCustomField(readFile("fields/post/postCustomFieldOrder3.json"));
@@ -0,0 +1,137 @@
+package org.folio.rest.impl;
+
+import static org.apache.http.HttpStatus.SC_CREATED;
+import static org.apache.http.HttpStatus.SC_NOT_FOUND;
+import static org.apache.http.HttpStatus.SC_NOT_MODIFIED;
+import static org.folio.CustomFieldsTestUtil.CUSTOM_FIELDS_PATH;
+import static org.folio.CustomFieldsTestUtil.USER1_HEADER;
+import static org.folio.CustomFieldsTestUtil.deleteAllCustomFields;
+import static org.folio.CustomFieldsTestUtil.itemResourcePath;
+import static org.folio.CustomFieldsTestUtil.mockUserRequests;
+import static org.folio.repository.ConnectOptionsUtil.connectOptions;
+import static org.folio.repository.CustomFieldsConstants.CUSTOM_FIELDS_TABLE;
+import static org.folio.test.util.TestUtil.STUB_TENANT;
+import static org.folio.test.util.TestUtil.readFile;
+import static org.junit.Assert.assertEquals;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import javax.ws.rs.core.HttpHeaders;
+
+import io.restassured.http.Header;
+import io.restassured.response.ExtractableResponse;
+import io.restassured.response.Response;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+import io.vertx.pgclient.PgConnectOptions;
+import io.vertx.pgclient.PgConnection;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import org.folio.repository.ReadReplica;
+import org.folio.rest.jaxrs.model.CustomField;
+import org.folio.rest.jaxrs.model.CustomFieldCollection;
+import org.folio.rest.persist.PostgresClient;
+import org.folio.spring.SpringContextUtil;
+import org.folio.test.util.TestBase;
+
+/**
+ * Reads custom fields with a replica that is a separate database of the embedded server. The replica isn't
+ * replicated, it keeps a custom field that the primary database doesn't have, like a replica that lags behind.
+ */
+@RunWith(VertxUnitRunner.class)
+public class CustomFieldsReplicaTest extends TestBase {
+
+  private static final String REPLICA_DATABASE = "custom_fields_replica";
+  private static final String STALE_FIELD_ID = "99999999-9999-9999-a999-999999999999";
+
+  @Autowired
+  private ReadReplica readReplica;
+
+  @Before
+  public void setUp() throws Exception {
+    SpringContextUtil.autowireDependenciesFromFirstContext(this, vertx);
+    deleteAllCustomFields(vertx);
+    mockUserRequests();
+    createReplica();
+
+    JsonObject config = PostgresClient.getInstance(vertx, STUB_TENANT).getConnectionConfig();
+    ReflectionTestUtils.setField(readReplica, "host", config.getString("host"));
+    ReflectionTestUtils.setField(readReplica, "port", Integer.parseInt(config.getValue("port").toString()));
+    ReflectionTestUtils.setField(readReplica, "database", REPLICA_DATABASE);
+    ReflectionTestUtils.setField(readReplica, "readYourWritesSeconds", 60L);
+  }
+
+  @After
+  public void tearDown() {
+    readReplica.close();
+    ReflectionTestUtils.setField(readReplica, "host", "");
+    ReflectionTestUtils.setField(readReplica, "database", "");
+    deleteAllCustomFields(vertx);
+  }
+
+  @Test
+  public void shouldReadFromPrimaryAfterWriteAndFromReplicaAfterReadYourWritesPeriod() throws Exception {
+    CustomField saved = postWithStatus(CUSTOM_FIELDS_PATH, readFile("fields/post/postCustomField.json"), SC_CREATED,
+      USER1_HEADER).as(CustomField.class);
+
+    CustomFieldCollection fromPrimary = getWithOk(CUSTOM_FIELDS_PATH).as(CustomFieldCollection.class);
+    assertEquals(1, fromPrimary.getCustomFields().size());
+    assertEquals(saved.getId(), fromPrimary.getCustomFields().get(0).getId());
+    assertEquals(saved.getName(), getWithOk(itemResourcePath(saved.getId())).as(CustomField.class).getName());
+
+    ReflectionTestUtils.setField(readReplica, "readYourWritesSeconds", 0L);
+
+    ExtractableResponse<Response> response = getWithOk(CUSTOM_FIELDS_PATH);
+    CustomFieldCollection fromReplica = response.as(CustomFieldCollection.class);
+    assertEquals(1, fromReplica.getCustomFields().size());
+    assertEquals(STALE_FIELD_ID, fromReplica.getCustomFields().get(0).getId());
+    assertEquals(1, (int) fromReplica.getTotalRecords());
+    getWithStatus(itemResourcePath(saved.getId()), SC_NOT_FOUND);
+
+    Header ifNoneMatch = new Header(HttpHeaders.IF_NONE_MATCH, response.header(HttpHeaders.ETAG));
+    getWithStatus(CUSTOM_FIELDS_PATH, SC_NOT_MODIFIED, ifNoneMatch);
+  }
+
+  private void createReplica() throws Exception {
+    JsonObject adminConfig = PostgresClient.getInstance(vertx).getConnectionConfig();
+    String schema = PostgresClient.convertToPsqlStandard(STUB_TENANT);
+    execute(connectOptions(adminConfig), "DROP DATABASE IF EXISTS " + REPLICA_DATABASE);
+    execute(connectOptions(adminConfig), "CREATE DATABASE " + REPLICA_DATABASE);
+    execute(connectOptions(adminConfig).setDatabase(REPLICA_DATABASE),
+      "CREATE SCHEMA " + schema + " AUTHORIZATION " + schema + "; "
+        + "CREATE FUNCTION " + schema + ".f_unaccent(text) RETURNS text AS 'SELECT $1' LANGUAGE sql IMMUTABLE; "
+        + "CREATE TABLE " + schema + "." + CUSTOM_FIELDS_TABLE + " (id uuid PRIMARY KEY, jsonb jsonb NOT NULL, "
+        + "ref_id text, field_order integer, entity_type text); "
+        + "INSERT INTO " + schema + "." + CUSTOM_FIELDS_TABLE + " VALUES ('" + STALE_FIELD_ID + "', "
+        + "'{\"id\": \"" + STALE_FIELD_ID + "\", \"name\": \"Stale field\", \"refId\": \"staleField\", "
+        + "\"type\": \"TEXTBOX_SHORT\", \"entityType\": \"user\", \"order\": 1, \"visible\": true, "
+        + "\"required\": false}', 'staleField', 1, 'user'); "
+        + "GRANT ALL ON ALL TABLES IN SCHEMA " + schema + " TO " + schema);
+  }
+
+  private void execute(PgConnectOptions options, String sql) throws Exception {
+    CompletableFuture<Void> executed = new CompletableFuture<>();
+    PgConnection.connect(vertx, options, connected -> {
+      if (connected.failed()) {
+        executed.completeExceptionally(connected.cause());
+        return;
+      }
+      PgConnection connection = connected.result();
+      connection.query(sql).execute(result -> {
+        connection.close();
+        if (result.failed()) {
+          executed.completeExceptionally(result.cause());
+        } else {
+          executed.complete(null);
+        }
+      });
+    });
+    executed.get(10, TimeUnit.SECONDS);
+  }
+}
@@ -0,0 +1,264 @@
+package org.folio.service;
+
+import static org.folio.test.util.TokenTestUtil.createTokenHeader;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.vertx.core.CompositeFuture;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+import io.vertx.core.http.HttpServer;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.unit.Async;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TestRule;
+import org.junit.runner.RunWith;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import org.folio.model.User;
+import org.folio.okapi.common.XOkapiHeaders;
+import org.folio.test.junit.TestStartLoggingRule;
+
+@RunWith(VertxUnitRunner.class)
+public class UserServiceTest {
+
+  private static final int POOL_SIZE = 4;
+  private static final int CONCURRENT_REQUESTS = 100;
+  private static final int BREAKER_FAILURES = 2;
+  private static final int BREAKER_OPEN_SECONDS = 1;
+  private static final int REQUEST_TIMEOUT_MILLIS = 100;
+
+  @Rule
+  public TestRule watcher = TestStartLoggingRule.instance();
+
+  private final AtomicInteger connections = new AtomicInteger();
+  private final AtomicInteger requests = new AtomicInteger();
+  private final AtomicLong latencyMillis = new AtomicLong();
+  private final AtomicBoolean closeMidBody = new AtomicBoolean();
+  private Vertx vertx;
+  private HttpServer server;
+  private OkapiHttpClients httpClients;
+  private UserService userService;
+
+  @Before
+  public void setUp(TestContext context) {
+    vertx = Vertx.vertx();
+    server = vertx.createHttpServer()
+      .connectionHandler(connection -> connections.incrementAndGet())
+      .requestHandler(request -> {
+        requests.incrementAndGet();
+        String userId = request.path().substring(request.path().lastIndexOf('/') + 1);
+        if (closeMidBody.get()) {
+          request.response().setChunked(true).putHeader("Content-Type", "application/json").write("{\"id\":");
+          request.connection().close();
+          return;
+        }
+        Handler<Long> respond = id -> request.response()
+          .putHeader("Content-Type", "application/json")
+          .end(new JsonObject().put("id", userId).put("username", "user-" + userId).encode());
+        if (latencyMillis.get() > 0) {
+          vertx.setTimer(latencyMillis.get(), respond);
+        } else {
+          respond.handle(null);
+        }
+      });
+    server.listen(0, context.asyncAssertSuccess());
+
+    httpClients = new OkapiHttpClients(vertx, POOL_SIZE, 1000, 5000, 60, false);
+    userService = new UserService(1000, 60, BREAKER_FAILURES, BREAKER_OPEN_SECONDS);
+    ReflectionTestUtils.setField(userService, "httpClients", httpClients);
+  }
+
+  @After
+  public void tearDown(TestContext context) {
+    httpClients.close();
+    vertx.close(context.asyncAssertSuccess());
+  }
+
+  @Test
+  public void shouldReuseConnectionsOfPoolUnderConcurrentRequests(TestContext context) {
+    Async async = context.async();
+    sendConcurrentRequests(context).compose(v -> sendConcurrentRequests(context)).setHandler(result -> {
+      context.assertTrue(result.succeeded());
+      context.assertEquals(2 * CONCURRENT_REQUESTS, requests.get());
+      context.assertTrue(connections.get() <= POOL_SIZE, "Connections opened: " + connections.get());
+      async.complete();
+    });
+  }
+
+  @Test
+  public void shouldReturnCachedUser(TestContext context) {
+    Async async = context.async();
+    Map<String, String> headers = okapiHeaders(UUID.randomUUID().toString());
+    userService.getUserInfo(headers)
+      .compose(user -> userService.getUserInfo(headers))
+      .setHandler(result -> {
+        context.assertTrue(result.succeeded());
+        context.assertEquals(1, requests.get());
+        context.assertEquals(1L, userService.stats().hitCount());
+        async.complete();
+      });
+  }
+
+  @Test
+  public void shouldTakeUsernameFromTokenIfEnabled(TestContext context) {
+    ReflectionTestUtils.setField(userService, "userFromToken", true);
+    String userId = UUID.randomUUID().toString();
+    userService.getUserInfo(okapiHeaders(userId)).setHandler(context.asyncAssertSuccess(user -> {
+      context.assertEquals(userId, user.getId());
+      context.assertEquals("user-" + userId, user.getUsername());
+      context.assertEquals(0, requests.get());
+    }));
+  }
+
+  @Test
+  @SuppressWarnings("rawtypes")
+  public void shouldShareRequestOfConcurrentLookupsOfSameUser(TestContext context) {
+    Async async = context.async();
+    Map<String, String> headers = okapiHeaders(UUID.randomUUID().toString());
+    List<Future> users = new ArrayList<>();
+    for (int i = 0; i < CONCURRENT_REQUESTS; i++) {
+      users.add(userService.getUserInfo(headers));
+    }
+    CompositeFuture.all(users).setHandler(result -> {
+      context.assertTrue(result.succeeded());
+      context.assertEquals(1, requests.get());
+      async.complete();
+    });
+  }
+
+  @Test
+  public void shouldFailLookupIfResponseIsCutOffAndLookUpAgain(TestContext context) {
+    closeMidBody.set(true);
+    Map<String, String> headers = okapiHeaders(UUID.randomUUID().toString());
+    Async async = context.async();
+    userService.getUserInfo(headers).setHandler(failed -> {
+      context.assertTrue(failed.failed());
+      context.assertTrue(((ConcurrentMap<?, ?>) ReflectionTestUtils.getField(userService, "lookups")).isEmpty());
+      closeMidBody.set(false);
+      userService.getUserInfo(headers).setHandler(result -> {
+        context.assertTrue(result.succeeded());
+        context.assertEquals(2, requests.get());
+        async.complete();
+      });
+    });
+  }
+
+  @Test
+  public void shouldReturnUserWithIdOnlyIfUsersRespondSlowly(TestContext context) {
+    enableDegradedMode();
+    latencyMillis.set(REQUEST_TIMEOUT_MILLIS * 10L);
+    String userId = UUID.randomUUID().toString();
+    long start = System.nanoTime();
+    userService.getUserInfo(okapiHeaders(userId)).setHandler(context.asyncAssertSuccess(user -> {
+      context.assertEquals(userId, user.getId());
+      context.assertNull(user.getUsername());
+      context.assertTrue(user.isDegraded());
+      context.assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(latencyMillis.get()));
+    }));
+  }
+
+  @Test
+  public void shouldOpenCircuitAfterFailuresAndCloseAfterSuccessfulProbe(TestContext context) {
+    enableDegradedMode();
+    latencyMillis.set(REQUEST_TIMEOUT_MILLIS * 10L);
+    Async async = context.async();
+    lookUpNewUser()
+      .compose(user -> lookUpNewUser())
+      .compose(user -> {
+        context.assertEquals(CircuitBreaker.State.OPEN, userService.getCircuitState(okapiUrl()));
+        return lookUpNewUser();
+      })
+      .compose(user -> {
+        context.assertNull(user.getUsername());
+        context.assertEquals(BREAKER_FAILURES, requests.get());
+        latencyMillis.set(0);
+        Promise<Void> openPeriodOver = Promise.promise();
+        vertx.setTimer(TimeUnit.SECONDS.toMillis(BREAKER_OPEN_SECONDS) + 100, id -> openPeriodOver.complete());
+        return openPeriodOver.future();
+      })
+      .compose(v -> lookUpNewUser())
+      .setHandler(result -> {
+        context.assertTrue(result.succeeded());
+        context.assertNotNull(result.result().getUsername());
+        context.assertEquals(BREAKER_FAILURES + 1, requests.get());
+        context.assertEquals(CircuitBreaker.State.CLOSED, userService.getCircuitState(okapiUrl()));
+        async.complete();
+      });
+  }
+
+  @Test
+  public void shouldKeepCircuitOfOtherOkapiUrlClosed(TestContext context) {
+    enableDegradedMode();
+    latencyMillis.set(REQUEST_TIMEOUT_MILLIS * 10L);
+    Async async = context.async();
+    lookUpNewUser()
+      .compose(user -> lookUpNewUser())
+      .compose(user -> {
+        context.assertEquals(CircuitBreaker.State.OPEN, userService.getCircuitState(okapiUrl()));
+        latencyMillis.set(0);
+        Map<String, String> headers = okapiHeaders(UUID.randomUUID().toString());
+        headers.put(XOkapiHeaders.URL, "http://127.0.0.1:" + server.actualPort());
+        return userService.getUserInfo(headers);
+      })
+      .setHandler(result -> {
+        context.assertTrue(result.succeeded());
+        context.assertNotNull(result.result().getUsername());
+        context.assertEquals(CircuitBreaker.State.OPEN, userService.getCircuitState(okapiUrl()));
+        async.complete();
+      });
+  }
+
+  private void enableDegradedMode() {
+    httpClients.close();
+    httpClients = new OkapiHttpClients(vertx, POOL_SIZE, 1000, REQUEST_TIMEOUT_MILLIS, 60, false);
+    ReflectionTestUtils.setField(userService, "httpClients", httpClients);
+    ReflectionTestUtils.setField(userService, "degradedMode", true);
+  }
+
+  private Future<User> lookUpNewUser() {
+    return userService.getUserInfo(okapiHeaders(UUID.randomUUID().toString()));
+  }
+
+  @SuppressWarnings("rawtypes")
+  private Future<Void> sendConcurrentRequests(TestContext context) {
+    List<Future> users = new ArrayList<>();
+    for (int i = 0; i < CONCURRENT_REQUESTS; i++) {
+      String userId = UUID.randomUUID().toString();
+      users.add(userService.getUserInfo(okapiHeaders(userId))
+        .map(user -> {
+          context.assertEquals("user-" + userId, user.getUsername());
+          return user;
+        }));
+    }
+    return CompositeFuture.all(users).map(result -> null);
+  }
+
+  private String okapiUrl() {
+    return "http://localhost:" + server.actualPort();
+  }
+
+  private Map<String, String> okapiHeaders(String userId) {
+    Map<String, String> headers = new HashMap<>();
+    headers.put(XOkapiHeaders.TENANT, "diku");
+    headers.put(XOkapiHeaders.URL, okapiUrl());
+    headers.put(XOkapiHeaders.TOKEN, createTokenHeader("user-" + userId, userId).getValue());
+    return headers;
+  }
+}
@@ -0,0 +1,113 @@
+package org.folio.service;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.stubFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathEqualTo;
+import static org.apache.http.HttpStatus.SC_CREATED;
+import static org.folio.CustomFieldsTestUtil.CUSTOM_FIELDS_PATH;
+import static org.folio.CustomFieldsTestUtil.USER2_HEADER;
+import static org.folio.CustomFieldsTestUtil.USERS_PATH;
+import static org.folio.CustomFieldsTestUtil.deleteAllCustomFields;
+import static org.folio.CustomFieldsTestUtil.getAllCustomFields;
+import static org.folio.CustomFieldsTestUtil.itemResourcePath;
+import static org.folio.CustomFieldsTestUtil.mockUserRequests;
+import static org.folio.test.util.TestUtil.readFile;
+import static org.folio.test.util.TokenTestUtil.createTokenHeader;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import com.github.tomakehurst.wiremock.client.ResponseDefinitionBuilder;
+import com.google.common.cache.Cache;
+import io.vertx.core.json.Json;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import org.folio.rest.jaxrs.model.CustomField;
+import org.folio.rest.jaxrs.model.Metadata;
+import org.folio.spring.SpringContextUtil;
+import org.folio.test.util.TestBase;
+
+@RunWith(VertxUnitRunner.class)
+public class UsernameBackfillTest extends TestBase {
+
+  private static final String USER6_ID = "66666666-6666-6666-6666-666666666666";
+  private static final String USER7_ID = "77777777-7777-7777-7777-777777777777";
+
+  @Autowired
+  private UsernameBackfill usernameBackfill;
+  @Autowired
+  private UserService userService;
+
+  @Before
+  public void setUp() {
+    SpringContextUtil.autowireDependenciesFromFirstContext(this, vertx);
+    ReflectionTestUtils.setField(userService, "degradedMode", true);
+  }
+
+  @After
+  public void tearDown() {
+    ReflectionTestUtils.setField(userService, "degradedMode", false);
+    ((Cache<?, ?>) ReflectionTestUtils.getField(usernameBackfill, "pendingUsers")).invalidateAll();
+    deleteAllCustomFields(vertx);
+  }
+
+  @Test
+  public void shouldSetUsernamesOfCustomFieldSavedWhileUsersWereUnavailable() throws Exception {
+    mockUserResponse(USER6_ID, aResponse().withStatus(500));
+    CustomField saved = postWithStatus(CUSTOM_FIELDS_PATH, readFile("fields/post/postCustomField.json"), SC_CREATED,
+      createTokenHeader("u6", USER6_ID)).as(CustomField.class);
+    assertNull(saved.getMetadata().getCreatedByUsername());
+    assertEquals(1, usernameBackfill.size());
+
+    mockUserResponse(USER6_ID, aResponse().withStatus(200)
+      .withBody(new JsonObject().put("id", USER6_ID).put("username", "u6").encode()));
+    postWithStatus(CUSTOM_FIELDS_PATH, readFile("fields/post/postCustomField2.json"), SC_CREATED,
+      createTokenHeader("u6", USER6_ID));
+
+    Metadata metadata = getAllCustomFields(vertx).stream()
+      .filter(field -> field.getId().equals(saved.getId()))
+      .findFirst().get().getMetadata();
+    assertEquals("u6", metadata.getCreatedByUsername());
+    assertEquals("u6", metadata.getUpdatedByUsername());
+    assertEquals(0, usernameBackfill.size());
+  }
+
+  @Test
+  public void shouldKeepUserPendingWhileUsersAreUnavailable() throws Exception {
+    mockUserResponse(USER7_ID, aResponse().withStatus(500));
+    postWithStatus(CUSTOM_FIELDS_PATH, readFile("fields/post/postCustomField.json"), SC_CREATED,
+      createTokenHeader("u7", USER7_ID));
+    postWithStatus(CUSTOM_FIELDS_PATH, readFile("fields/post/postCustomField2.json"), SC_CREATED,
+      createTokenHeader("u7", USER7_ID));
+
+    assertEquals(1, usernameBackfill.size());
+    getAllCustomFields(vertx).forEach(field -> assertNull(field.getMetadata().getCreatedByUsername()));
+  }
+
+  @Test
+  public void shouldNotSetUsernameOfCreatorOnUpdateByOtherUser() throws Exception {
+    mockUserRequests();
+    mockUserResponse(USER7_ID, aResponse().withStatus(500));
+    CustomField saved = postWithStatus(CUSTOM_FIELDS_PATH, readFile("fields/post/postCustomField.json"), SC_CREATED,
+      createTokenHeader("u7", USER7_ID)).as(CustomField.class);
+
+    saved.setName("Other name");
+    saved.getMetadata().setCreatedByUsername("u2");
+    putWithNoContent(itemResourcePath(saved.getId()), Json.encode(saved), USER2_HEADER);
+
+    Metadata metadata = getAllCustomFields(vertx).get(0).getMetadata();
+    assertEquals("undefined", metadata.getCreatedByUsername());
+    assertEquals("u2", metadata.getUpdatedByUsername());
+  }
+
+  private static void mockUserResponse(String userId, ResponseDefinitionBuilder response) {
+    stubFor(get(urlPathEqualTo(USERS_PATH + "/" + userId)).willReturn(response));
+  }
+}
@@ -0,0 +1,159 @@
+package org.folio.validate;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import static org.folio.validate.ValidationTestUtil.parseCustomFieldJsonValue;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import org.folio.rest.jaxrs.model.CustomField;
+import org.folio.rest.jaxrs.model.Error;
+import org.folio.spring.TestConfiguration;
+import org.folio.test.util.TestUtil;
+
+@RunWith(SpringRunner.class)
+@ContextConfiguration(classes = TestConfiguration.class)
+public class ValidationPlanFactoryTest {
+
+  @Autowired
+  private ValidationPlanFactory planFactory;
+
+  @Test
+  public void shouldReuseCompiledPlanForSameDefinitions() throws IOException, URISyntaxException {
+    List<CustomField> definitions = getDefinitions();
+    ValidationPlan plan = planFactory.getPlan(definitions);
+
+    assertSame(plan, planFactory.getPlan(definitions));
+    assertNotSame(plan, planFactory.getPlan(new ArrayList<>(definitions)));
+  }
+
+  @Test
+  public void shouldValidateValuesOfDefinedFields() throws IOException, URISyntaxException {
+    Map<String, Object> values = new HashMap<>();
+    values.put("favoritefoods_1", parseCustomFieldJsonValue("[\"pizza\", \"potatoes\"]"));
+    values.put("textbox-field", parseCustomFieldJsonValue("\"text\""));
+
+    assertTrue(planFactory.getPlan(getDefinitions()).validate(values).isEmpty());
+  }
+
+  @Test
+  public void shouldReturnErrorIfOptionIsNotAllowed() throws IOException, URISyntaxException {
+    Map<String, Object> values = new HashMap<>();
+    values.put("favoritefoods_1", parseCustomFieldJsonValue("[\"pizza\", \"table\"]"));
+
+    List<Error> errors = planFactory.getPlan(getDefinitions()).validate(values);
+
+    assertEquals(1, errors.size());
+    assertEquals("favoritefoods_1", errors.get(0).getParameters().get(0).getKey());
+    assertEquals("[\"pizza\",\"table\"]", errors.get(0).getParameters().get(0).getValue());
+  }
+
+  @Test
+  public void shouldReturnErrorIfFieldIsNotDefined() throws IOException, URISyntaxException {
+    Map<String, Object> values = new HashMap<>();
+    values.put("notexistingfield", parseCustomFieldJsonValue("\"value\""));
+
+    List<Error> errors = planFactory.getPlan(getDefinitions()).validate(values);
+
+    assertEquals(1, errors.size());
+    assertEquals("customFields", errors.get(0).getParameters().get(0).getKey());
+    assertEquals("notexistingfield", errors.get(0).getParameters().get(0).getValue());
+  }
+
+  @Test
+  public void shouldReturnErrorForArrayElementWhileReadingJson() throws IOException, URISyntaxException {
+    String json = "{\"favoritefoods_1\": [\"pizza\", \"table\"], \"textbox-field\": \"text\"}";
+
+    List<Error> errors;
+    try (JsonParser parser = new JsonFactory().createParser(json)) {
+      errors = planFactory.getPlan(getDefinitions()).validate(parser);
+    }
+
+    assertEquals(1, errors.size());
+    assertEquals("favoritefoods_1", errors.get(0).getParameters().get(0).getKey());
+    assertEquals("\"table\"", errors.get(0).getParameters().get(0).getValue());
+  }
+
+  @Test
+  public void shouldReturnErrorIfFieldIsNotDefinedWhileReadingJson() throws IOException, URISyntaxException {
+    String json = "{\"notexistingfield\": {\"nested\": [1, 2]}, \"textbox-field\": \"text\"}";
+
+    List<Error> errors;
+    try (JsonParser parser = new JsonFactory().createParser(json)) {
+      errors = planFactory.getPlan(getDefinitions()).validate(parser);
+    }
+
+    assertEquals(1, errors.size());
+    assertEquals("customFields", errors.get(0).getParameters().get(0).getKey());
+    assertEquals("notexistingfield", errors.get(0).getParameters().get(0).getValue());
+  }
+
+  @Test
+  public void shouldStopValidationAfterMaxErrors() throws IOException, URISyntaxException {
+    Map<String, Object> values = new LinkedHashMap<>();
+    values.put("notexistingfield", parseCustomFieldJsonValue("\"value\""));
+    values.put("favoritefoods_1", parseCustomFieldJsonValue("[\"table\"]"));
+    values.put("textbox-field", parseCustomFieldJsonValue("1"));
+
+    ValidationResult result = planFactory.getPlan(getDefinitions()).validate(values, 2);
+
+    assertTrue(result.isLimitReached());
+    assertEquals(2, result.getErrors().size());
+    assertEquals("customFields", result.getErrors().get(0).getParameters().get(0).getKey());
+    assertEquals("favoritefoods_1", result.getErrors().get(1).getParameters().get(0).getKey());
+  }
+
+  @Test
+  public void shouldStopReadingJsonAfterMaxErrors() throws IOException, URISyntaxException {
+    String json = "{\"favoritefoods_1\": [\"table\", \"chair\"], \"textbox-field\": 1, \"broken\": ";
+
+    ValidationResult result;
+    try (JsonParser parser = new JsonFactory().createParser(json)) {
+      result = planFactory.getPlan(getDefinitions()).validate(parser, 1);
+    }
+
+    assertTrue(result.isLimitReached());
+    assertEquals(1, result.getErrors().size());
+    assertEquals("\"table\"", result.getErrors().get(0).getParameters().get(0).getValue());
+  }
+
+  @Test
+  public void shouldValidateAllValuesIfErrorsAreUnlimited() throws IOException, URISyntaxException {
+    Map<String, Object> values = new LinkedHashMap<>();
+    values.put("notexistingfield", parseCustomFieldJsonValue("\"value\""));
+    values.put("favoritefoods_1", parseCustomFieldJsonValue("[\"table\"]"));
+    values.put("textbox-field", parseCustomFieldJsonValue("1"));
+
+    ValidationResult result = planFactory.getPlan(getDefinitions()).validate(values, ValidationResult.UNLIMITED);
+
+    assertFalse(result.isLimitReached());
+    assertEquals(3, result.getErrors().size());
+  }
+
+  private List<CustomField> getDefinitions() throws IOException, URISyntaxException {
+    return Arrays.asList(
+      TestUtil.readJsonFile("fields/model/multiSelectField.json", CustomField.class),
+      TestUtil.readJsonFile("fields/model/shortTextBoxField.json", CustomField.class),
+      TestUtil.readJsonFile("fields/model/checkboxField.json", CustomField.class)
+    );
+  }
+}
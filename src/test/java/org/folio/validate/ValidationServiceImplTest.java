@@ -9,10 +9,15 @@ import static org.folio.test.util.TestUtil.readFile;
 
 import java.io.IOException;
 import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
 
 import org.folio.CustomFieldsTestUtil;
 import org.folio.rest.jaxrs.model.Errors;
 import org.folio.rest.jaxrs.model.Parameter;
+import org.folio.service.CustomFieldDefinitionCache;
 import org.folio.spring.SpringContextUtil;
 import org.folio.test.util.TestBase;
 import org.junit.After;
@@ -22,6 +27,8 @@ import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
 
 import io.vertx.core.Context;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.DecodeException;
 import io.vertx.core.json.Json;
 import io.vertx.ext.unit.Async;
 import io.vertx.ext.unit.TestContext;
@@ -34,6 +41,8 @@ public class ValidationServiceImplTest extends TestBase {
 
   @Autowired
   private Context vertxContext;
+  @Autowired
+  private CustomFieldDefinitionCache definitionCache;
 
   @Before
   public void setUp() throws IOException, URISyntaxException {
@@ -45,6 +54,7 @@ public class ValidationServiceImplTest extends TestBase {
   @After
   public void tearDown() {
     CustomFieldsTestUtil.deleteAllCustomFields(vertx);
+    definitionCache.invalidateAll();
   }
 
   @Test
@@ -88,6 +98,41 @@ public class ValidationServiceImplTest extends TestBase {
       });
   }
 
+  @Test
+  public void shouldReturnAnErrorIfValidationOfJsonBufferFails(TestContext context) throws IOException, URISyntaxException {
+    createRadioButtonField();
+    Async async = context.async();
+    validationService.validateCustomFields(Buffer.buffer("{\"favoritefood\":\"opt_5\"}"), STUB_TENANT)
+      .onComplete(validation -> {
+        if (validation.failed()) {
+          Throwable cause = validation.cause();
+          if (!(cause instanceof CustomFieldValidationException)) {
+            context.fail(cause);
+          } else {
+            Errors errors = ((CustomFieldValidationException) cause).getErrors();
+            Parameter errorParam = errors.getErrors().get(0).getParameters().get(0);
+            context.assertEquals("favoritefood", errorParam.getKey());
+            context.assertEquals("\"opt_5\"", errorParam.getValue());
+          }
+        } else {
+          context.fail("Validation didn't fail.");
+        }
+        async.complete();
+      });
+  }
+
+  @Test
+  public void shouldFailIfJsonBufferIsMalformed(TestContext context) throws IOException, URISyntaxException {
+    createRadioButtonField();
+    Async async = context.async();
+    validationService.validateCustomFields(Buffer.buffer("{\"favoritefood\":"), STUB_TENANT)
+      .onComplete(validation -> {
+        context.assertTrue(validation.failed());
+        context.assertTrue(validation.cause() instanceof DecodeException);
+        async.complete();
+      });
+  }
+
   @Test
   public void shouldReturnAnErrorIfFieldIsNotFound(TestContext context) throws IOException, URISyntaxException {
     createRadioButtonField();
@@ -109,6 +154,89 @@ public class ValidationServiceImplTest extends TestBase {
       });
   }
 
+  @Test
+  public void shouldUseCachedDefinitionsOnSubsequentValidation(TestContext context) throws IOException, URISyntaxException {
+    createRadioButtonField();
+    Async async = context.async();
+    CustomFieldValue customFieldValue = Json.decodeValue("{\"favoritefood\":\"opt_1\"}", CustomFieldValue.class);
+    validationService
+      .validateCustomFields(customFieldValue.getAdditionalProperties(), STUB_TENANT)
+      .compose(o -> {
+        long hitCount = definitionCache.stats().hitCount();
+        return validationService
+          .validateCustomFields(customFieldValue.getAdditionalProperties(), STUB_TENANT)
+          .map(v -> definitionCache.stats().hitCount() - hitCount);
+      })
+      .onComplete(context.asyncAssertSuccess(hits -> {
+        context.assertEquals(1L, hits);
+        async.complete();
+      }));
+  }
+
+  @Test
+  public void shouldValidateAgainstDefinitionCreatedAfterCaching(TestContext context) throws IOException, URISyntaxException {
+    createRadioButtonField();
+    CustomFieldValue customFieldValue = Json.decodeValue("{\"shortTextBoxField\":\"text\"}", CustomFieldValue.class);
+    Async cached = context.async();
+    validationService
+      .validateCustomFields(customFieldValue.getAdditionalProperties(), STUB_TENANT)
+      .onComplete(validation -> cached.complete());
+    cached.awaitSuccess();
+
+    createTextBoxField();
+    validationService
+      .validateCustomFields(customFieldValue.getAdditionalProperties(), STUB_TENANT)
+      .onComplete(context.asyncAssertSuccess());
+  }
+
+  @Test
+  public void shouldEvictCachedDefinitionsWhenTableIsChangedDirectly(TestContext context) throws IOException, URISyntaxException {
+    createRadioButtonField();
+    Async cached = context.async();
+    definitionCache.getDefinitions(STUB_TENANT).onComplete(context.asyncAssertSuccess(definitions -> {
+      context.assertEquals(1, definitions.size());
+      cached.complete();
+    }));
+    cached.awaitSuccess();
+
+    CustomFieldsTestUtil.deleteAllCustomFields(vertx);
+
+    Async evicted = context.async();
+    vertx.setPeriodic(100, timerId -> definitionCache.getDefinitions(STUB_TENANT).onComplete(definitions -> {
+      if (definitions.succeeded() && definitions.result().isEmpty()) {
+        vertx.cancelTimer(timerId);
+        evicted.complete();
+      }
+    }));
+    evicted.awaitSuccess(5000);
+  }
+
+  @Test
+  public void shouldReturnErrorsByRecordIndexForBatch(TestContext context) throws IOException, URISyntaxException {
+    createRadioButtonField();
+    Map<String, Object> validValue = Json.decodeValue("{\"favoritefood\":\"opt_1\"}", CustomFieldValue.class)
+      .getAdditionalProperties();
+    Map<String, Object> invalidValue = Json.decodeValue("{\"favoritefood\":\"opt_5\"}", CustomFieldValue.class)
+      .getAdditionalProperties();
+    List<Map<String, Object>> batch = new ArrayList<>();
+    for (int i = 0; i < 2500; i++) {
+      batch.add(i % 1000 == 999 ? invalidValue : validValue);
+    }
+
+    validationService.validateCustomFieldsBatch(batch, STUB_TENANT)
+      .onComplete(context.asyncAssertSuccess(errors -> {
+        context.assertEquals(Arrays.asList(999, 1999), new ArrayList<>(errors.keySet()));
+        Parameter errorParam = errors.get(999).getErrors().get(0).getParameters().get(0);
+        context.assertEquals("favoritefood", errorParam.getKey());
+        context.assertEquals("\"opt_5\"", errorParam.getValue());
+      }));
+  }
+
+  private void createTextBoxField() throws IOException, URISyntaxException {
+    String textBox = readFile("fields/post/textbox/postTextBoxShort.json");
+    postWithStatus(CUSTOM_FIELDS_PATH, textBox, SC_CREATED, USER1_HEADER);
+  }
+
   private void createRadioButtonField() throws IOException, URISyntaxException {
     String radioButton = readFile("fields/post/radioButton/postValidRadioButton.json");
     postWithStatus(CUSTOM_FIELDS_PATH, radioButton, SC_CREATED, USER1_HEADER);
@@ -1,7 +1,12 @@
 package org.folio.validate.value.format;
 
+import static org.folio.validate.value.format.FormatValidatorTestUtil.assertSameLanguage;
+import static org.folio.validate.value.format.FormatValidatorTestUtil.assertSameResult;
+
 import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.validator.routines.EmailValidator;
 import org.junit.Rule;
+import org.junit.Test;
 import org.junit.experimental.theories.DataPoints;
 import org.junit.experimental.theories.FromDataPoints;
 import org.junit.experimental.theories.Theories;
@@ -54,4 +59,19 @@ public class EmailFormatValidatorTest {
     validator.validate(email);
   }
 
+  @Test
+  public void shouldAcceptSameEmailsAsCommonsValidator() {
+    EmailValidator commonsValidator = EmailValidator.getInstance();
+    for (String email : validEmails()) {
+      assertSameResult(commonsValidator::isValid, validator::isValid, email);
+    }
+    for (String email : invalidEmails()) {
+      assertSameResult(commonsValidator::isValid, validator::isValid, email);
+    }
+    String[] tokens = {"a", "b1", "-", ".", "..", "@", "example", "com", "org", "localhost", "c0m", "COM", "museum",
+      "xn--p1ai", "_", "'", "!", "#", "~", "=", "?", "{", "|", "(", ")", "<", ":", ";", ",", "\"", "\\", " ", "\t",
+      "\u007F", "[1.2.3.4]", "\u0440\u0444", "\u00E9", "a-", "-a", StringUtils.repeat('x', 60), StringUtils.repeat('y', 70)};
+    assertSameLanguage(commonsValidator::isValid, validator::isValid, tokens, 9, 200_000);
+  }
+
 }
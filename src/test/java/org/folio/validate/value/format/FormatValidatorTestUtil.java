@@ -0,0 +1,33 @@
+package org.folio.validate.value.format;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+import java.util.function.Predicate;
+
+public class FormatValidatorTestUtil {
+
+  private static final long SEED = 20200601L;
+
+  /**
+   * Checks that both validators accept the same values out of {@code count} random concatenations of
+   * up to {@code maxTokens} tokens
+   */
+  public static void assertSameLanguage(Predicate<String> expected, Predicate<String> actual,
+                                        String[] tokens, int maxTokens, int count) {
+    Random random = new Random(SEED);
+    StringBuilder value = new StringBuilder();
+    for (int i = 0; i < count; i++) {
+      value.setLength(0);
+      int tokenCount = 1 + random.nextInt(maxTokens);
+      for (int j = 0; j < tokenCount; j++) {
+        value.append(tokens[random.nextInt(tokens.length)]);
+      }
+      assertSameResult(expected, actual, value.toString());
+    }
+  }
+
+  public static void assertSameResult(Predicate<String> expected, Predicate<String> actual, String value) {
+    assertEquals("Unexpected result for [" + value + "]", expected.test(value), actual.test(value));
+  }
+}
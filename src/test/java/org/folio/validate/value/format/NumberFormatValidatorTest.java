@@ -1,6 +1,11 @@
 package org.folio.validate.value.format;
 
+import static org.folio.validate.value.format.FormatValidatorTestUtil.assertSameLanguage;
+import static org.folio.validate.value.format.FormatValidatorTestUtil.assertSameResult;
+
+import org.apache.commons.validator.routines.RegexValidator;
 import org.junit.Rule;
+import org.junit.Test;
 import org.junit.experimental.theories.DataPoints;
 import org.junit.experimental.theories.FromDataPoints;
 import org.junit.experimental.theories.Theories;
@@ -44,4 +49,23 @@ public class NumberFormatValidatorTest {
     validator.validate(number);
   }
 
+  @Test
+  public void shouldAcceptSameNumbersAsRegularExpressions() {
+    RegexValidator regexValidator = new RegexValidator(new String[] {
+      "(-?\\d+)",
+      "(-?\\d*[,|\\.]\\d+)",
+      "(-?\\d{1,3}(\\s\\d{3})+([,|\\.]\\d+)?)",
+      "(-?\\d{1,3}(,\\d{3})+(\\.\\d+)?)"
+    });
+    for (String number : validNumbers()) {
+      assertSameResult(regexValidator::isValid, validator::isValid, number);
+    }
+    for (String number : invalidNumbers()) {
+      assertSameResult(regexValidator::isValid, validator::isValid, number);
+    }
+    String[] tokens = {"0", "1", "12", "123", "1234", "000", " 000", ",000", "-", ",", ".", "|", " ", "\t", "\n",
+      "a", "\u0663"};
+    assertSameLanguage(regexValidator::isValid, validator::isValid, tokens, 8, 200_000);
+  }
+
 }
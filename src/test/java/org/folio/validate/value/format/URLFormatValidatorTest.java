@@ -1,6 +1,11 @@
 package org.folio.validate.value.format;
 
+import static org.folio.validate.value.format.FormatValidatorTestUtil.assertSameLanguage;
+import static org.folio.validate.value.format.FormatValidatorTestUtil.assertSameResult;
+
+import org.apache.commons.validator.routines.UrlValidator;
 import org.junit.Rule;
+import org.junit.Test;
 import org.junit.experimental.theories.DataPoints;
 import org.junit.experimental.theories.FromDataPoints;
 import org.junit.experimental.theories.Theories;
@@ -47,4 +52,20 @@ public class URLFormatValidatorTest {
     validator.validate(url);
   }
 
+  @Test
+  public void shouldAcceptSameUrlsAsCommonsValidator() {
+    UrlValidator commonsValidator = new UrlValidator(new String[] {"http", "https"});
+    for (String url : validUrls()) {
+      assertSameResult(commonsValidator::isValid, validator::isValid, url);
+    }
+    for (String url : invalidUrls()) {
+      assertSameResult(commonsValidator::isValid, validator::isValid, url);
+    }
+    String[] tokens = {"http", "https", "HTTP", "hTTps", "ftp", "file", ":", "://", "//", "/", "?", "#", "example", ".",
+      "com", "user", "@", ":8080", ":65535", ":65536", ":99999", ":0000080", "127.0.0.1", "256", "01", "1.2.3", "..",
+      "/..", "/.", "-", "_", "%20", "%", "[::1]", " ", "a", "0", "(", ")", "'", "~", "!", "$", "=", ";", ",", "*", "+",
+      "\\", "\"", "<", "{", "|", "^", "`", "xn--p1ai", "\u00E9"};
+    assertSameLanguage(commonsValidator::isValid, validator::isValid, tokens, 10, 300_000);
+  }
+
 }